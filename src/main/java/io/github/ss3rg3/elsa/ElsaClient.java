@@ -19,10 +19,12 @@ package io.github.ss3rg3.elsa;
 import io.github.ss3rg3.elsa.admin.IndexAdmin;
 import io.github.ss3rg3.elsa.bulkprocessor.BulkProcessorConfigurator;
 import io.github.ss3rg3.elsa.bulkprocessor.DefaultBulkResponseListener;
+import io.github.ss3rg3.elsa.bulkprocessor.IndexGenerationListener;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
 import io.github.ss3rg3.elsa.dao.DaoConfig;
 import io.github.ss3rg3.elsa.dao.ElsaDAO;
+import io.github.ss3rg3.elsa.dao.IndexGenerations;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
 import io.github.ss3rg3.elsa.model.ElsaModel;
 import org.apache.http.HttpHost;
@@ -30,6 +32,7 @@ import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkProcessor.Listener;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.core.TimeValue;
 import io.github.ss3rg3.elsa.reindexer.Reindexer;
 import io.github.ss3rg3.elsa.scroller.Scroller;
 import io.github.ss3rg3.elsa.snapshotter.RepositoryBucket;
@@ -52,6 +55,7 @@ public class ElsaClient {
     public final Reindexer reindexer;
     public final Snapshotter snapshotter;
     public final Gson gson;
+    private final IndexGenerations indexGenerations = new IndexGenerations();
     private final DaoCreator daoCreator;
     private final ImmutableMap<Class<? extends ElsaModel>, ? extends ElsaDAO> daoMap;
 
@@ -108,7 +112,7 @@ public class ElsaClient {
                 config.bulkResponseListener,
                 config.requestOptionsForBulkProcessor,
                 config.bulkProcessorConfigurator);
-        this.scroller = new Scroller(this);
+        this.scroller = new Scroller(this, config.scrollMaxInactivity);
         this.reindexer = new Reindexer(this);
         this.snapshotter = new Snapshotter(this, repositoryBucket);
 
@@ -155,6 +159,7 @@ public class ElsaClient {
         private BulkProcessorConfigurator bulkProcessorConfigurator;
         private RepositoryBucket.Config repositoryBucketConfig;
         private ModelMapper modelMapper;
+        private TimeValue scrollMaxInactivity;
 
 
         public Config setClusterNodes(final HttpHost[] httpHosts) {
@@ -225,6 +230,16 @@ public class ElsaClient {
             return this;
         }
 
+        /**
+         * Scrolls which were initialized via the Scroller but got no request for this long are cleared in the
+         * background, e.g. because clearScroll() was never called after an exception. Otherwise such scroll contexts
+         * stay open on the cluster until their keep-alive expires. Must be longer than the time needed to process a page.
+         */
+        public Config reapInactiveScrolls(final TimeValue defaultIsKeepAliveOfScroll) {
+            this.scrollMaxInactivity = defaultIsKeepAliveOfScroll;
+            return this;
+        }
+
     }
 
     /**
@@ -237,6 +252,13 @@ public class ElsaClient {
                 "Make sure the following io.github.ss3rg3.elsa.model was registered in the ElsaClient instantiation: " + modelClass);
     }
 
+    /**
+     * Write counters per index, used to invalidate the SearchResultCaches of the DAOs.
+     */
+    public IndexGenerations getIndexGenerations() {
+        return this.indexGenerations;
+    }
+
     /**
      * Use this method if you want to work with multiple indices which use the same io.github.ss3rg3.elsa.model. Otherwise register DAOs
      * via the ElsaClient instantiation and use ElsaClient.getDAO(ElsaModel).
@@ -248,7 +270,8 @@ public class ElsaClient {
     /**
      * Just use the one which is automatically created in your ElsaClient. There seems to be no use for multiple
      * BulkProcessors. Another instance will use the same ThreadPool in Elastic's io.github.ss3rg3.elsa.client. If you want prioritize specific
-     * BulkRequests then put a PriorityQueue in front of it.
+     * BulkRequests then put a PriorityQueue in front of it.<br>
+     * The listener gets wrapped in an IndexGenerationListener, so the writes invalidate the SearchResultCaches.
      */
     public BulkProcessor createAnotherBulkProcessor(final RestHighLevelClient client,
                                                     final Listener bulkResponseListener,
@@ -256,7 +279,8 @@ public class ElsaClient {
                                                     final BulkProcessorConfigurator bulkProcessorConfigurator) {
 
         final BulkProcessor.Builder bulkProcessorBuilder = BulkProcessor.builder(
-                (request, bulkActionListener) -> client.bulkAsync(request, requestOptions, bulkActionListener), bulkResponseListener);
+                (request, bulkActionListener) -> client.bulkAsync(request, requestOptions, bulkActionListener),
+                new IndexGenerationListener(bulkResponseListener, this.indexGenerations));
         if (bulkProcessorConfigurator != null) {
             return bulkProcessorConfigurator.configure(bulkProcessorBuilder).build();
         }
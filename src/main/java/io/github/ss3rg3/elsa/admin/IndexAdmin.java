@@ -58,7 +58,7 @@ public class IndexAdmin {
     public CreateIndexResponse createIndex(final IndexConfig indexConfig,
                                            final RequestOptions options) throws ElsaException {
         try {
-            final String mapping = this.mappingBuilder.createMapping(indexConfig.getMappingClass());
+            final String mapping = this.mappingBuilder.createMapping(indexConfig);
             final CreateIndexRequest request = new CreateIndexRequest(indexConfig.getIndexName());
             request.index();
             final Settings settings = this.createSettings(indexConfig);
@@ -114,7 +114,7 @@ public class IndexAdmin {
                                               final RequestOptions options) throws ElsaException {
         try {
             final String indexName = indexConfig.getIndexName();
-            final String mapping = this.mappingBuilder.createMapping(indexConfig.getMappingClass());
+            final String mapping = this.mappingBuilder.createMapping(indexConfig);
 
             final Request request = new Request(Method.PUT, Endpoint.INDEX_MAPPING.update(indexName));
             request.setEntity(RequestBody.asJson(mapping));
@@ -1,5 +1,8 @@
 package io.github.ss3rg3.elsa.admin;
 
+import com.google.gson.JsonObject;
+import io.github.ss3rg3.elsa.model.IndexConfig;
+import io.github.ss3rg3.elsa.statics.ElsaStatics;
 import org.springframework.data.elasticsearch.client.ClientConfiguration;
 import org.springframework.data.elasticsearch.client.RestClients;
 import org.springframework.data.elasticsearch.client.RestClients.ElasticsearchRestClient;
@@ -25,4 +28,16 @@ public class MappingBuilder {
         return ops.indexOps(clazz).createMapping().toJson();
     }
 
+    public String createMapping(IndexConfig indexConfig) {
+        final String mapping = this.createMapping(indexConfig.getMappingClass());
+        if (!indexConfig.isRoutingRequired()) {
+            return mapping;
+        }
+        final JsonObject json = ElsaStatics.GSON.fromJson(mapping, JsonObject.class);
+        final JsonObject routing = new JsonObject();
+        routing.addProperty("required", true);
+        json.add("_routing", routing);
+        return ElsaStatics.GSON.toJson(json);
+    }
+
 }
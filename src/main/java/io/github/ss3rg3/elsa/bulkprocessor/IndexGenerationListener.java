@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.bulkprocessor;
+
+import io.github.ss3rg3.elsa.dao.IndexGenerations;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Wraps the listener of every BulkProcessor created by ElsaClient, so every bulk request increments the generations of the
+ * indices it writes to. This invalidates the cached searches on these indices, see SearchResultCache.
+ */
+public class IndexGenerationListener implements BulkProcessor.Listener {
+
+    private final BulkProcessor.Listener listener;
+    private final IndexGenerations indexGenerations;
+
+    public IndexGenerationListener(final BulkProcessor.Listener listener, final IndexGenerations indexGenerations) {
+        this.listener = listener;
+        this.indexGenerations = indexGenerations;
+    }
+
+    @Override
+    public void beforeBulk(final long executionId, final BulkRequest request) {
+        this.incrementGenerations(request);
+        this.listener.beforeBulk(executionId, request);
+    }
+
+    @Override
+    public void afterBulk(final long executionId, final BulkRequest request, final BulkResponse response) {
+        this.incrementGenerations(request);
+        this.listener.afterBulk(executionId, request, response);
+    }
+
+    @Override
+    public void afterBulk(final long executionId, final BulkRequest request, final Throwable failure) {
+        this.incrementGenerations(request);
+        this.listener.afterBulk(executionId, request, failure);
+    }
+
+    /**
+     * Called before and after the bulk, so searches which run concurrently to the bulk aren't cached as up to date.
+     */
+    private void incrementGenerations(final BulkRequest request) {
+        final Set<String> indices = new HashSet<>();
+        for (final DocWriteRequest<?> docWriteRequest : request.requests()) {
+            indices.add(docWriteRequest.index());
+        }
+        indices.forEach(this.indexGenerations::increment);
+    }
+
+}
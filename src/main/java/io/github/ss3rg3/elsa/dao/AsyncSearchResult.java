@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.model.ElsaModel;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.asyncsearch.AsyncSearchResponse;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * State of an async search, see SearchDAO.submitAsyncSearch(). While the search is running, the SearchResponse
+ * contains the partial results of the shards which are done already.
+ */
+public class AsyncSearchResult<T extends ElsaModel> {
+
+    private final AsyncSearchResponse response;
+    private final SearchResponseMapper<T> searchResponseMapper;
+
+    AsyncSearchResult(final AsyncSearchResponse response, final SearchResponseMapper<T> searchResponseMapper) {
+        this.response = response;
+        this.searchResponseMapper = searchResponseMapper;
+    }
+
+    /**
+     * @return NULL if the search completed within waitForCompletion and wasn't stored
+     */
+    public String getId() {
+        return this.response.getId();
+    }
+
+    public boolean isRunning() {
+        return this.response.isRunning();
+    }
+
+    /**
+     * @return true if not all shards are done yet or some failed
+     */
+    public boolean isPartial() {
+        return this.response.isPartial();
+    }
+
+    /**
+     * @return NULL if there are no results yet
+     */
+    public SearchResponse getSearchResponse() {
+        return this.response.getSearchResponse();
+    }
+
+    /**
+     * Maps the (partial) hits to your io.github.ss3rg3.elsa.model inclusive the _id field.
+     *
+     * @return Empty list if there are no results yet
+     */
+    public List<T> getHits() {
+        if (this.response.getSearchResponse() == null) {
+            return Collections.emptyList();
+        }
+        return this.searchResponseMapper.mapHitsToList(this.response.getSearchResponse());
+    }
+
+    /**
+     * @return NULL if the search didn't fail
+     */
+    public ElasticsearchException getFailure() {
+        return this.response.getFailure();
+    }
+
+    /**
+     * @return Time in millis when Elasticsearch deletes the search and its results, see keepAlive
+     */
+    public long getExpirationTime() {
+        return this.response.getExpirationTime();
+    }
+
+    public AsyncSearchResponse getResponse() {
+        return this.response;
+    }
+
+}
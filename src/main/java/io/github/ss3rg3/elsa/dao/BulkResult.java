@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Result of the bulk methods in CrudDAO. Every item links the BulkItemResponse back to the model (or PartialUpdate)
+ * it was created from.
+ * The items have the same order as the models which were passed in.
+ */
+public class BulkResult<T> {
+
+    private final List<Item<T>> items = new ArrayList<>();
+    private final List<ElsaException> batchFailures = new ArrayList<>();
+    private int batches = 0;
+
+    void add(final T model, final BulkItemResponse response) {
+        this.items.add(new Item<>(model, response));
+    }
+
+    void incrementBatches() {
+        this.batches++;
+    }
+
+    void addBatchFailure(final ElsaException failure) {
+        this.batchFailures.add(failure);
+    }
+
+    public List<Item<T>> getItems() {
+        return Collections.unmodifiableList(this.items);
+    }
+
+    public List<Item<T>> getFailedItems() {
+        return this.items.stream()
+                .filter(Item::isFailed)
+                .collect(Collectors.toList());
+    }
+
+    public boolean hasFailures() {
+        return !this.batchFailures.isEmpty() || this.items.stream().anyMatch(Item::isFailed);
+    }
+
+    /**
+     * @return Exceptions of BulkRequests which failed as a whole, e.g. because of a timeout. The items of these
+     * batches are failed with the same exception, the items of the other batches are unaffected.
+     */
+    public List<ElsaException> getBatchFailures() {
+        return Collections.unmodifiableList(this.batchFailures);
+    }
+
+    /**
+     * @return Number of BulkRequests which were needed to send all models
+     */
+    public int getBatches() {
+        return this.batches;
+    }
+
+    public static class Item<T> {
+
+        private final T model;
+        private final BulkItemResponse response;
+
+        private Item(final T model, final BulkItemResponse response) {
+            this.model = model;
+            this.response = response;
+        }
+
+        public T getModel() {
+            return this.model;
+        }
+
+        public BulkItemResponse getResponse() {
+            return this.response;
+        }
+
+        public boolean isFailed() {
+            return this.response.isFailed();
+        }
+
+        public String getFailureMessage() {
+            return this.response.getFailureMessage();
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.reindexer.ReindexOptions.Conflicts;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Settings for CrudDAO.deleteByQuery() and updateByQuery(). Only the query is mandatory, everything else uses the
+ * defaults of Elasticsearch.
+ */
+public class ByQuerySettings {
+
+    private static final String SLICES_AUTO = "auto";
+
+    private final QueryBuilder query;
+    private final Map<String, String> parameters = new HashMap<>();
+    private Script script;
+
+    public ByQuerySettings(final QueryBuilder query) {
+        Objects.requireNonNull(query, "query must not be NULL.");
+        this.query = query;
+    }
+
+    /**
+     * (Optional) Splits the operation into slices which run in parallel, usually one per shard.
+     */
+    public ByQuerySettings slices(final int optionalSetting) {
+        if (optionalSetting <= 0) {
+            throw new IllegalArgumentException("slices must be greater than 0, got: " + optionalSetting);
+        }
+        this.parameters.put("slices", String.valueOf(optionalSetting));
+        return this;
+    }
+
+    /**
+     * (Optional) Lets Elasticsearch choose the number of slices, i.e. the number of shards.
+     */
+    public ByQuerySettings slicesAuto() {
+        this.parameters.put("slices", SLICES_AUTO);
+        return this;
+    }
+
+    /**
+     * (Optional) Throttles the operation to protect the cluster. Default is unlimited.
+     */
+    public ByQuerySettings requestsPerSecond(final float optionalSetting) {
+        if (optionalSetting <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond must be greater than 0, got: " + optionalSetting);
+        }
+        this.parameters.put("requests_per_second", String.valueOf(optionalSetting));
+        return this;
+    }
+
+    /**
+     * (Optional) Proceed when conflicts occur, just count them. Otherwise the operation aborts on the first conflict.
+     */
+    public ByQuerySettings conflicts(final Conflicts optionalSetting) {
+        this.parameters.put("conflicts", optionalSetting.toString());
+        return this;
+    }
+
+    /**
+     * (Optional) Number of documents per scroll batch, default is 1000.
+     */
+    public ByQuerySettings scrollSize(final int optionalSetting) {
+        this.parameters.put("scroll_size", String.valueOf(optionalSetting));
+        return this;
+    }
+
+    /**
+     * (Optional) Refreshes the affected shards after the operation.
+     */
+    public ByQuerySettings refresh(final boolean optionalSetting) {
+        this.parameters.put("refresh", String.valueOf(optionalSetting));
+        return this;
+    }
+
+    /**
+     * (Optional) Script which is applied to every matching document. Only used by updateByQuery.
+     */
+    public ByQuerySettings script(final Script optionalSetting) {
+        this.script = optionalSetting;
+        return this;
+    }
+
+    public Map<String, String> getParameters() {
+        return new HashMap<>(this.parameters);
+    }
+
+    public Script getScript() {
+        return this.script;
+    }
+
+    XContentBuilder createBody(final boolean withScript) {
+        try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
+            builder.startObject();
+            builder.field("query", this.query);
+            if (withScript && this.script != null) {
+                builder.field("script", this.script);
+            }
+            return builder.endObject();
+        } catch (final IOException e) {
+            throw new IllegalStateException("Couldn't create XContentBuilder.", e);
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default record of SearchDAO.streamCompositeBuckets(). Holds the composite key, the doc_count and the values of
+ * single-value metric sub-aggregations (avg, sum, max, cardinality etc.) by their name. Metrics without a value,
+ * e.g. avg of no documents, are missing.<br>
+ * Integral numbers in the key are Longs, other numbers Doubles. Serializing it with Gson writes the same format.
+ */
+@JsonAdapter(CompositeBucket.Adapter.class)
+public class CompositeBucket {
+
+    private final Map<String, Object> key;
+    private final long docCount;
+    private final Map<String, Double> metrics;
+
+    public CompositeBucket(final Map<String, Object> key, final long docCount, final Map<String, Double> metrics) {
+        this.key = Collections.unmodifiableMap(key);
+        this.docCount = docCount;
+        this.metrics = Collections.unmodifiableMap(metrics);
+    }
+
+    public Map<String, Object> getKey() {
+        return this.key;
+    }
+
+    public Object getKey(final String source) {
+        return this.key.get(source);
+    }
+
+    public long getDocCount() {
+        return this.docCount;
+    }
+
+    public Map<String, Double> getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @return NULL if the metric has no value
+     */
+    public Double getMetric(final String name) {
+        return this.metrics.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return "CompositeBucket{key=" + this.key + ", docCount=" + this.docCount + ", metrics=" + this.metrics + "}";
+    }
+
+    /**
+     * Reads a JSON object into a map. Needed for the keys, because Gson reads all numbers as Double, which loses the
+     * precision of big longs like timestamps.
+     */
+    static Map<String, Object> readObject(final JsonReader reader) throws IOException {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            map.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return map;
+    }
+
+    static Object readValue(final JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                final String number = reader.nextString();
+                try {
+                    return Long.parseLong(number);
+                } catch (final NumberFormatException e) {
+                    return Double.parseDouble(number);
+                }
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                final List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return list;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    static void writeValue(final JsonWriter writer, final Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else if (value instanceof Map) {
+            writer.beginObject();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writer.name(String.valueOf(entry.getKey()));
+                writeValue(writer, entry.getValue());
+            }
+            writer.endObject();
+        } else if (value instanceof Iterable) {
+            writer.beginArray();
+            for (final Object element : (Iterable<?>) value) {
+                writeValue(writer, element);
+            }
+            writer.endArray();
+        } else {
+            writer.value(value.toString());
+        }
+    }
+
+    /**
+     * Writes the bucket in the format of the response, i.e. the metrics as {"name":{"value":...}}, so it can be
+     * read again.
+     */
+    static class Adapter extends TypeAdapter<CompositeBucket> {
+
+        @Override
+        public void write(final JsonWriter writer, final CompositeBucket bucket) throws IOException {
+            if (bucket == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.beginObject();
+            writer.name("key");
+            writeValue(writer, bucket.getKey());
+            writer.name("doc_count").value(bucket.getDocCount());
+            for (final Map.Entry<String, Double> metric : bucket.getMetrics().entrySet()) {
+                writer.name(metric.getKey()).beginObject().name("value").value(metric.getValue()).endObject();
+            }
+            writer.endObject();
+        }
+
+        @Override
+        public CompositeBucket read(final JsonReader reader) throws IOException {
+            Map<String, Object> key = Collections.emptyMap();
+            long docCount = 0;
+            final Map<String, Double> metrics = new LinkedHashMap<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("key".equals(name)) {
+                    key = readObject(reader);
+                } else if ("doc_count".equals(name)) {
+                    docCount = reader.nextLong();
+                } else if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    final Object value = readObject(reader).get("value");
+                    if (value instanceof Number) {
+                        metrics.put(name, ((Number) value).doubleValue());
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new CompositeBucket(key, docCount, metrics);
+        }
+    }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import io.github.ss3rg3.elsa.endpoints.Endpoint;
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.exceptions.ElsaUncheckedException;
+import io.github.ss3rg3.elsa.helpers.Futures;
+import io.github.ss3rg3.elsa.helpers.RequestBody;
+import io.github.ss3rg3.elsa.statics.Method;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pages through a composite aggregation via after_key, see SearchDAO.streamCompositeBuckets(). The responses are
+ * read with Gson's streaming JsonReader and every bucket is mapped directly to the bucket class, so no Aggregations
+ * object graph is created. Only one page of buckets is held at a time, plus the next page if prefetch is enabled.
+ * The first page is requested when the iterator is created. Use it in try-with-resources, close() cancels a
+ * request which is still in flight, e.g. a prefetch if the consumer stopped early.<br>
+ * Exceptions are thrown as ElsaUncheckedException, because Iterator doesn't allow checked exceptions.
+ */
+public class CompositeBucketIterator<B> implements Iterator<B>, AutoCloseable {
+
+    private final SearchDAO<?> dao;
+    private final QueryBuilder query;
+    private final CompositeAggregationBuilder composite;
+    private final Class<B> bucketClass;
+    private final Gson gson;
+    private final boolean prefetch;
+    private final RequestOptions options;
+
+    private Iterator<B> page = Collections.emptyIterator();
+    private Map<String, Object> afterKey;
+    private CompletableFuture<Page<B>> next;
+    private volatile Cancellable inFlight;
+    private volatile boolean closed = false;
+
+    CompositeBucketIterator(final SearchDAO<?> dao,
+                            final QueryBuilder query,
+                            final CompositeAggregationBuilder composite,
+                            final Class<B> bucketClass,
+                            final Gson gson,
+                            final boolean prefetch,
+                            final RequestOptions options) {
+        this.dao = dao;
+        this.query = query;
+        this.composite = composite;
+        this.bucketClass = bucketClass;
+        this.gson = gson;
+        this.prefetch = prefetch;
+        this.options = options;
+        this.next = this.fetch(null);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!this.page.hasNext()) {
+            if (this.closed) {
+                return false;
+            }
+            if (this.next == null) {
+                if (this.afterKey == null) {
+                    return false;
+                }
+                this.next = this.fetch(this.afterKey);
+            }
+            final Page<B> current;
+            try {
+                current = Futures.await(this.next);
+            } catch (final ElsaException e) {
+                throw new ElsaUncheckedException(e);
+            } finally {
+                this.next = null;
+            }
+            this.afterKey = current.buckets.isEmpty() ? null : current.afterKey;
+            if (this.prefetch && this.afterKey != null) {
+                this.next = this.fetch(this.afterKey);
+            }
+            this.page = current.buckets.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public B next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return this.page.next();
+    }
+
+    /**
+     * Cancels the request which is in flight, which releases its permit of the RequestLimiter and drops the response.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.page = Collections.emptyIterator();
+        this.afterKey = null;
+        this.next = null;
+        final Cancellable cancellable = this.inFlight;
+        if (cancellable != null) {
+            cancellable.cancel();
+        }
+    }
+
+    /**
+     * The body is serialized right away, so the composite builder can be reused for the next page.
+     */
+    private CompletableFuture<Page<B>> fetch(final Map<String, Object> after) {
+        final SearchSourceBuilder source = new SearchSourceBuilder()
+                .query(this.query)
+                .size(0)
+                .trackTotalHits(false)
+                .aggregation(this.composite.aggregateAfter(after));
+        final Request request = new Request(Method.POST, Endpoint.SEARCH.search(this.dao.getIndexConfig().getIndexName()));
+        request.setOptions(this.options);
+        request.addParameter("filter_path", "aggregations." + this.composite.getName());
+        request.setEntity(RequestBody.asJson(Strings.toString(source)));
+
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        this.dao.limitAsync(releasing -> {
+            if (this.closed) {
+                releasing.onFailure(new CancellationException("CompositeBucketIterator was closed."));
+                return;
+            }
+            this.inFlight = this.dao.getElsa().client.getLowLevelClient().performRequestAsync(request, new ResponseListener() {
+                @Override
+                public void onSuccess(final Response response) {
+                    CompositeBucketIterator.this.inFlight = null;
+                    releasing.onResponse(response);
+                }
+
+                @Override
+                public void onFailure(final Exception e) {
+                    CompositeBucketIterator.this.inFlight = null;
+                    releasing.onFailure(e);
+                }
+            });
+            // Closed while the request was sent
+            if (this.closed) {
+                this.inFlight.cancel();
+            }
+        }, Futures.completing(future));
+        return future.thenApply(this::parsePage);
+    }
+
+    private Page<B> parsePage(final Response response) {
+        final Page<B> page = new Page<>();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("aggregations".equals(reader.nextName())) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (this.composite.getName().equals(reader.nextName())) {
+                            this.parseComposite(reader, page);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return page;
+        } catch (final IOException e) {
+            throw new ElsaUncheckedException(Futures.toElsaException(e));
+        }
+    }
+
+    private void parseComposite(final JsonReader reader, final Page<B> page) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if ("after_key".equals(name)) {
+                page.afterKey = CompositeBucket.readObject(reader);
+            } else if ("buckets".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    page.buckets.add(this.gson.fromJson(reader, this.bucketClass));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static class Page<B> {
+        private final List<B> buckets = new ArrayList<>();
+        private Map<String, Object> afterKey;
+    }
+
+}
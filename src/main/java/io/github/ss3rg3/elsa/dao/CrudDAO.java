@@ -17,32 +17,96 @@
 package io.github.ss3rg3.elsa.dao;
 
 import io.github.ss3rg3.elsa.ElsaClient;
+import io.github.ss3rg3.elsa.endpoints.Endpoint;
 import io.github.ss3rg3.elsa.exceptions.ElsaElasticsearchException;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
 import io.github.ss3rg3.elsa.exceptions.ElsaIOException;
+import io.github.ss3rg3.elsa.helpers.Futures;
+import io.github.ss3rg3.elsa.helpers.RequestBody;
+import io.github.ss3rg3.elsa.jsonmapper.ProjectionMapper;
 import io.github.ss3rg3.elsa.model.ElsaModel;
+import io.github.ss3rg3.elsa.model.RoutingAware;
+import io.github.ss3rg3.elsa.responses.ByQueryResponse;
+import io.github.ss3rg3.elsa.responses.ResponseFactory;
+import io.github.ss3rg3.elsa.responses.TaskResponse;
+import io.github.ss3rg3.elsa.statics.Method;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.xcontent.XContentType;
 import io.github.ss3rg3.elsa.statics.ElsaStatics;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
 
+    /**
+     * Params instead of inlined values, so Elasticsearch compiles the script only once.
+     */
+    private static final String PARTIAL_UPDATE_SCRIPT = "ctx._source.putAll(params.fields); " +
+            "for (def entry : params.increments.entrySet()) { " +
+            "def value = ctx._source[entry.getKey()]; " +
+            "ctx._source[entry.getKey()] = value == null ? entry.getValue() : value + entry.getValue(); }";
+
+    private final GetBatcher getBatcher;
+
     public CrudDAO(final DaoConfig daoConfig, final ElsaClient elsa) {
         super(daoConfig, elsa);
+        this.getBatcher = daoConfig.getBatchGetsWindow() == null ? null : new GetBatcher(
+                this.getIndexConfig().getIndexName(),
+                this.getIndexConfig().isRoutingRequired(),
+                daoConfig.getBatchGetsWindow(),
+                daoConfig.getBatchGetsMaxSize(),
+                request -> {
+                    final CompletableFuture<MultiGetResponse> future = new CompletableFuture<>();
+                    this.limitAsync(releasing -> this.getElsa().client.mgetAsync(request, RequestOptions.DEFAULT, releasing), Futures.completing(future));
+                    return future;
+                });
+    }
+
+    /**
+     * @return NULL if DaoConfig.batchGets is not set
+     */
+    public GetBatcher getGetBatcher() {
+        return this.getBatcher;
     }
 
 
@@ -63,7 +127,11 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
     public IndexResponse index(final T model, final RequestOptions options) throws ElsaException {
         Objects.requireNonNull(model, "Model must not be NULL.");
         try {
-            return this.getElsa().client.index(this.buildIndexRequest(model), options);
+            final IndexRequest request = this.buildIndexRequest(model);
+            this.evict(model.getId());
+            final IndexResponse response = this.limit(() -> this.getElsa().client.index(request, options));
+            this.evict(response.getId());
+            return response;
         } catch (final IOException e) {
             throw new ElsaIOException(e);
         } catch (final ElasticsearchException e) {
@@ -78,16 +146,36 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
      * If the ID exists then this will update the document.
      */
     public void indexAsync(final T model, final RequestOptions options, final ActionListener<IndexResponse> listener) {
-        this.getElsa().client.indexAsync(this.buildIndexRequest(model), options, listener);
+        final IndexRequest request = this.buildIndexRequest(model);
+        this.evict(model.getId());
+        this.limitAsync(releasing -> this.getElsa().client.indexAsync(request, options, releasing), this.evicting(this.dispatch(listener)));
+    }
+
+    /**
+     * Indexes the io.github.ss3rg3.elsa.model object asynchronously. Fails with an ElsaException.
+     */
+    public CompletableFuture<IndexResponse> indexFuture(final T model) {
+        return this.indexFuture(model, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<IndexResponse> indexFuture(final T model, final RequestOptions options) {
+        Objects.requireNonNull(model, "Model must not be NULL.");
+        final CompletableFuture<IndexResponse> future = new CompletableFuture<>();
+        final IndexRequest request = this.buildIndexRequest(model);
+        this.evict(model.getId());
+        this.limitAsync(releasing -> this.getElsa().client.indexAsync(request, options, releasing), this.evicting(this.completing(future)));
+        return future;
     }
 
     public IndexRequest buildIndexRequest(final T model) {
         if (model.getId() == null) {
             return new IndexRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE)
-                    .source(this.getJsonMapper().toJson(model), XContentType.JSON);
+                    .source(this.getJsonMapper().toJson(model), XContentType.JSON)
+                    .routing(this.getRouting(model));
         } else {
             return new IndexRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, this.getIdOrThrow(model))
-                    .source(this.getJsonMapper().toJson(model), XContentType.JSON);
+                    .source(this.getJsonMapper().toJson(model), XContentType.JSON)
+                    .routing(this.getRouting(model));
         }
     }
 
@@ -109,17 +197,29 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
      * @return mapped object or NULL if ID not found
      */
     public T get(final String id, final RequestOptions options) throws ElsaException {
+        return this.getDocument(id, this.checkRouting(id, null), options);
+    }
+
+    private T getDocument(final String id, final String routing, final RequestOptions options) throws ElsaException {
+        final T cached = this.getCached(id, routing);
+        if (cached != null) {
+            return cached;
+        }
+        if (this.isBatched(options)) {
+            final GetResponse response = Futures.await(this.getBatcher.submit(id, routing));
+            this.cache(response, routing);
+            return this.mapGetResponse(response);
+        }
+        final GetRequest request = new GetRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, id).routing(routing);
+        if (this.getRequestCoalescer() != null) {
+            final GetResponse response = Futures.await(this.coalesceGet(request, options));
+            this.cache(response, routing);
+            return this.mapGetResponse(response);
+        }
         try {
-            final GetResponse response = this.getElsa().client.get(
-                    new GetRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, id),
-                    options
-            );
-            T model = null;
-            if (response.isExists()) {
-                model = this.getJsonMapper().fromJson(new String(response.getSourceAsBytes(), StandardCharsets.UTF_8));
-                model.setId(response.getId());
-            }
-            return model;
+            final GetResponse response = this.limit(() -> this.getElsa().client.get(request, options));
+            this.cache(response, routing);
+            return this.mapGetResponse(response);
         } catch (final IOException e) {
             throw new ElsaIOException(e);
         } catch (final ElasticsearchException e) {
@@ -136,9 +236,9 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
     }
 
     public GetResponse getRawResponse(final String id, final RequestOptions options) throws ElsaException {
-        final GetRequest request = new GetRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, id);
+        final GetRequest request = this.buildGetRequest(id);
         try {
-            return this.getElsa().client.get(request, options);
+            return this.limit(() -> this.getElsa().client.get(request, options));
         } catch (final IOException e) {
             throw new ElsaIOException(e);
         } catch (final ElasticsearchException e) {
@@ -150,11 +250,316 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
      * This retrieves the document asynchronously. GetResponse will be send to the Listener and needs to be mapped there.
      */
     public void getAsync(final String id, final RequestOptions options, final ActionListener<GetResponse> listener) {
-        this.getElsa().client.getAsync(
-                new GetRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, id),
-                options,
-                listener
-        );
+        final GetRequest request = this.buildGetRequest(id);
+        this.limitAsync(releasing -> this.getElsa().client.getAsync(request, options, releasing), this.dispatch(listener));
+    }
+
+
+    /**
+     * This retrieves the document asynchronously and maps it onto your io.github.ss3rg3.elsa.model. Completes with NULL if
+     * ID not found. Fails with an ElsaException.
+     */
+    public CompletableFuture<T> getFuture(final String id) {
+        return this.getFuture(id, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<T> getFuture(final String id, final RequestOptions options) {
+        return this.getDocumentFuture(id, this.checkRouting(id, null), options);
+    }
+
+    private CompletableFuture<T> getDocumentFuture(final String id, final String routing, final RequestOptions options) {
+        final T cached = this.getCached(id, routing);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final GetRequest request = new GetRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, id).routing(routing);
+        final CompletableFuture<GetResponse> future;
+        if (this.isBatched(options)) {
+            future = this.dispatch(this.getBatcher.submit(id, routing));
+        } else if (this.getRequestCoalescer() != null) {
+            future = this.dispatch(this.coalesceGet(request, options));
+        } else {
+            future = new CompletableFuture<>();
+            this.limitAsync(releasing -> this.getElsa().client.getAsync(request, options, releasing), this.completing(future));
+        }
+        return Futures.mapping(future, response -> {
+            this.cache(response, routing);
+            return this.mapGetResponse(response);
+        });
+    }
+
+
+    /**
+     * Retrieves a document which was indexed with routing, see RoutingAware. DaoConfig.documentCache, batchGets and
+     * coalesceRequests apply like for get(), keyed by routing and ID.
+     *
+     * @return mapped object or NULL if ID not found
+     */
+    public T getRouted(final String id, final String routing) throws ElsaException {
+        return this.getRouted(id, routing, RequestOptions.DEFAULT);
+    }
+
+    public T getRouted(final String id, final String routing, final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(routing, "routing must not be NULL.");
+        return this.getDocument(id, routing, options);
+    }
+
+    public CompletableFuture<T> getRoutedFuture(final String id, final String routing) {
+        return this.getRoutedFuture(id, routing, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<T> getRoutedFuture(final String id, final String routing, final RequestOptions options) {
+        Objects.requireNonNull(routing, "routing must not be NULL.");
+        return this.getDocumentFuture(id, routing, options);
+    }
+
+    /**
+     * Un-routed GetRequest, fails fast if the index requires routing.
+     */
+    private GetRequest buildGetRequest(final String id) {
+        return new GetRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, this.checkId(id));
+    }
+
+    /**
+     * Retrieves only the included fields of the _source, all other fields of the model stay empty. Filtered gets
+     * bypass DaoConfig.documentCache, batchGets and coalesceRequests.
+     *
+     * @return mapped object or NULL if ID not found
+     */
+    public T get(final String id, final String... includes) throws ElsaException {
+        return this.get(id, this.getModelClass(), new FetchSourceContext(true, includes, null), RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Retrieves only the included fields of the _source and maps them onto a lightweight projection class instead
+     * of the full model. The projection doesn't need to implement ElsaModel, if it does then the ID is set.
+     *
+     * @return mapped object or NULL if ID not found
+     */
+    public <P> P get(final String id, final Class<P> projectionClass, final String... includes) throws ElsaException {
+        return this.get(id, projectionClass, new FetchSourceContext(true, includes, null), RequestOptions.DEFAULT);
+    }
+
+    public <P> P get(final String id,
+                     final Class<P> projectionClass,
+                     final FetchSourceContext fetchSourceContext,
+                     final RequestOptions options) throws ElsaException {
+        final GetRequest request = this.buildFilteredGetRequest(id, fetchSourceContext);
+        try {
+            final GetResponse response = this.limit(() -> this.getElsa().client.get(request, options));
+            return this.mapGetResponse(response, projectionClass);
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    /**
+     * Async variant of get() with a projection class. Completes with NULL if ID not found. Fails with an ElsaException.
+     */
+    public <P> CompletableFuture<P> getFuture(final String id, final Class<P> projectionClass, final String... includes) {
+        return this.getFuture(id, projectionClass, new FetchSourceContext(true, includes, null), RequestOptions.DEFAULT);
+    }
+
+    public <P> CompletableFuture<P> getFuture(final String id,
+                                              final Class<P> projectionClass,
+                                              final FetchSourceContext fetchSourceContext,
+                                              final RequestOptions options) {
+        final GetRequest request = this.buildFilteredGetRequest(id, fetchSourceContext);
+        final CompletableFuture<GetResponse> future = new CompletableFuture<>();
+        this.limitAsync(releasing -> this.getElsa().client.getAsync(request, options, releasing), this.completing(future));
+        return Futures.mapping(future, response -> this.mapGetResponse(response, projectionClass));
+    }
+
+    private GetRequest buildFilteredGetRequest(final String id, final FetchSourceContext fetchSourceContext) {
+        Objects.requireNonNull(fetchSourceContext, "fetchSourceContext must not be NULL.");
+        return this.buildGetRequest(id).fetchSourceContext(fetchSourceContext);
+    }
+
+    /**
+     * Custom RequestOptions (headers etc.) can't be merged into one _mget, so only default gets are batched.
+     */
+    private boolean isBatched(final RequestOptions options) {
+        return this.getBatcher != null && options == RequestOptions.DEFAULT;
+    }
+
+    private CompletableFuture<GetResponse> coalesceGet(final GetRequest request, final RequestOptions options) {
+        final List<Object> key = Arrays.asList("get", request.index(), request.routing(), request.id(), options);
+        return this.getRequestCoalescer().execute(key, () -> {
+            final CompletableFuture<GetResponse> future = new CompletableFuture<>();
+            this.limitAsync(releasing -> this.getElsa().client.getAsync(request, options, releasing), Futures.completing(future));
+            return future;
+        });
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // EXISTS
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Checks the existence via HEAD request, i.e. no _source is loaded or transferred.
+     */
+    public boolean exists(final String id) throws ElsaException {
+        return this.exists(id, RequestOptions.DEFAULT);
+    }
+
+    public boolean exists(final String id, final RequestOptions options) throws ElsaException {
+        final GetRequest request = this.buildExistsRequest(id);
+        try {
+            return this.limit(() -> this.getElsa().client.exists(request, options));
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    /**
+     * This checks the existence asynchronously. Fails with an ElsaException.
+     */
+    public CompletableFuture<Boolean> existsFuture(final String id) {
+        return this.existsFuture(id, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<Boolean> existsFuture(final String id, final RequestOptions options) {
+        final GetRequest request = this.buildExistsRequest(id);
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        this.limitAsync(releasing -> this.getElsa().client.existsAsync(request, options, releasing), this.completing(future));
+        return future;
+    }
+
+    /**
+     * Checks the existence of all IDs via _mget without _source, split like getAll(). Bit i is set if the i-th ID
+     * exists.
+     */
+    public BitSet existsAll(final Collection<String> ids) throws ElsaException {
+        return this.existsAll(ids, RequestOptions.DEFAULT);
+    }
+
+    public BitSet existsAll(final Collection<String> ids, final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(ids, "IDs must not be NULL.");
+        final List<MultiGetRequest> requests = this.buildMultiGetRequests(ids);
+        requests.forEach(request -> request.getItems().forEach(item -> item.fetchSourceContext(FetchSourceContext.DO_NOT_FETCH_SOURCE)));
+
+        final BitSet exists = new BitSet(ids.size());
+        int position = 0;
+        for (final MultiGetResponse response : this.multiGet(requests, options)) {
+            for (final MultiGetItemResponse item : response.getResponses()) {
+                if (item.isFailed()) {
+                    throw Futures.toElsaException(item.getFailure().getFailure());
+                }
+                exists.set(position++, item.getResponse().isExists());
+            }
+        }
+        return exists;
+    }
+
+    private GetRequest buildExistsRequest(final String id) {
+        return this.buildGetRequest(id)
+                .fetchSourceContext(FetchSourceContext.DO_NOT_FETCH_SOURCE)
+                .storedFields("_none_");
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // MULTI GET
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Retrieves the documents via _mget and maps them onto your io.github.ss3rg3.elsa.model. If there are more IDs than
+     * DaoConfig.multiGetChunkSize, then they are split into several _mget requests which are sent concurrently.
+     *
+     * @return mapped objects in the same order as the IDs, NULL for IDs which were not found
+     */
+    public List<T> getAll(final Collection<String> ids) throws ElsaException {
+        return this.getAll(ids, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * @return mapped objects in the same order as the IDs, NULL for IDs which were not found
+     */
+    public List<T> getAll(final Collection<String> ids, final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(ids, "IDs must not be NULL.");
+        final List<T> models = new ArrayList<>(Collections.nCopies(ids.size(), null));
+        final List<String> missingIds = new ArrayList<>();
+        final List<Integer> missingPositions = new ArrayList<>();
+        int position = 0;
+        for (final String id : ids) {
+            final T cached = this.getCached(id, null);
+            if (cached != null) {
+                models.set(position, cached);
+            } else {
+                missingIds.add(id);
+                missingPositions.add(position);
+            }
+            position++;
+        }
+
+        final Iterator<Integer> positions = missingPositions.iterator();
+        for (final MultiGetResponse response : this.multiGet(this.buildMultiGetRequests(missingIds), options)) {
+            for (final MultiGetItemResponse item : response.getResponses()) {
+                if (item.isFailed()) {
+                    throw Futures.toElsaException(item.getFailure().getFailure());
+                }
+                this.cache(item.getResponse(), null);
+                models.set(positions.next(), this.mapGetResponse(item.getResponse()));
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Splits the IDs into chunks of DaoConfig.multiGetChunkSize. Fails fast if the index requires routing.
+     */
+    public List<MultiGetRequest> buildMultiGetRequests(final Collection<String> ids) {
+        final String indexName = this.getIndexConfig().getIndexName();
+        final int chunkSize = this.getDaoConfig().getMultiGetChunkSize();
+        final List<MultiGetRequest> requests = new ArrayList<>();
+        MultiGetRequest request = new MultiGetRequest();
+        for (final String id : ids) {
+            if (request.getItems().size() == chunkSize) {
+                requests.add(request);
+                request = new MultiGetRequest();
+            }
+            request.add(indexName, this.checkId(id));
+        }
+        if (!request.getItems().isEmpty()) {
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private List<MultiGetResponse> multiGet(final List<MultiGetRequest> requests,
+                                            final RequestOptions options) throws ElsaException {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (requests.size() == 1) {
+            try {
+                final MultiGetRequest request = requests.get(0);
+                return Collections.singletonList(this.limit(() -> this.getElsa().client.mget(request, options)));
+            } catch (final IOException e) {
+                throw new ElsaIOException(e);
+            } catch (final ElasticsearchException e) {
+                throw new ElsaElasticsearchException(e);
+            }
+        }
+
+        final List<CompletableFuture<MultiGetResponse>> futures = new ArrayList<>(requests.size());
+        for (final MultiGetRequest request : requests) {
+            final CompletableFuture<MultiGetResponse> future = new CompletableFuture<>();
+            this.limitAsync(releasing -> this.getElsa().client.mgetAsync(request, options, releasing), Futures.completing(future));
+            futures.add(future);
+        }
+        Futures.awaitAll(futures);
+
+        final List<MultiGetResponse> responses = new ArrayList<>(futures.size());
+        for (final CompletableFuture<MultiGetResponse> future : futures) {
+            responses.add(future.join());
+        }
+        return responses;
     }
 
 
@@ -169,7 +574,10 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
     public DeleteResponse delete(final T model, final RequestOptions requestOptions) throws ElsaException {
         final DeleteRequest request = this.buildDeleteRequest(model);
         try {
-            return this.getElsa().client.delete(request, requestOptions);
+            this.evict(request.id());
+            final DeleteResponse response = this.limit(() -> this.getElsa().client.delete(request, requestOptions));
+            this.evict(request.id());
+            return response;
         } catch (final IOException e) {
             throw new ElsaIOException(e);
         } catch (final ElasticsearchException e) {
@@ -181,7 +589,9 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
      * This deletes the document asynchronously. DeleteResponse will be send to the Listener.
      */
     public void deleteAsync(final T model, final RequestOptions requestOptions, final ActionListener<DeleteResponse> listener) {
-        this.getElsa().client.deleteAsync(this.buildDeleteRequest(model), requestOptions, listener);
+        final DeleteRequest request = this.buildDeleteRequest(model);
+        this.evict(request.id());
+        this.limitAsync(releasing -> this.getElsa().client.deleteAsync(request, requestOptions, releasing), this.evicting(this.dispatch(listener)));
     }
 
     /**
@@ -191,8 +601,24 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
         this.deleteAsync(model, RequestOptions.DEFAULT, listener);
     }
 
+    /**
+     * This deletes the document asynchronously. Fails with an ElsaException.
+     */
+    public CompletableFuture<DeleteResponse> deleteFuture(final T model) {
+        return this.deleteFuture(model, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<DeleteResponse> deleteFuture(final T model, final RequestOptions requestOptions) {
+        final CompletableFuture<DeleteResponse> future = new CompletableFuture<>();
+        final DeleteRequest request = this.buildDeleteRequest(model);
+        this.evict(request.id());
+        this.limitAsync(releasing -> this.getElsa().client.deleteAsync(request, requestOptions, releasing), this.evicting(this.completing(future)));
+        return future;
+    }
+
     public DeleteRequest buildDeleteRequest(final T model) {
-        return new DeleteRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, this.getIdOrThrow(model));
+        return new DeleteRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, this.getIdOrThrow(model))
+                .routing(this.getRouting(model));
     }
 
 
@@ -208,9 +634,15 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
     }
 
     public UpdateResponse update(final T model, final RequestOptions requestOptions) throws ElsaException {
-        final UpdateRequest request = this.buildUpdateRequest(model);
+        return this.executeUpdate(this.buildUpdateRequest(model), requestOptions);
+    }
+
+    private UpdateResponse executeUpdate(final UpdateRequest request, final RequestOptions requestOptions) throws ElsaException {
         try {
-            return this.getElsa().client.update(request, requestOptions);
+            this.evict(request.id());
+            final UpdateResponse response = this.limit(() -> this.getElsa().client.update(request, requestOptions));
+            this.evict(request.id());
+            return response;
         } catch (final IOException e) {
             throw new ElsaIOException(e);
         } catch (final ElasticsearchException e) {
@@ -219,12 +651,443 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
     }
 
     public void updateAsync(final T model, final RequestOptions options, final ActionListener<UpdateResponse> listener) {
-        this.getElsa().client.updateAsync(this.buildUpdateRequest(model), options, listener);
+        final UpdateRequest request = this.buildUpdateRequest(model);
+        this.evict(request.id());
+        this.limitAsync(releasing -> this.getElsa().client.updateAsync(request, options, releasing), this.evicting(this.dispatch(listener)));
+    }
+
+    /**
+     * This updates the document asynchronously. Fails with an ElsaException, e.g. if the document doesn't exist.
+     */
+    public CompletableFuture<UpdateResponse> updateFuture(final T model) {
+        return this.updateFuture(model, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<UpdateResponse> updateFuture(final T model, final RequestOptions options) {
+        return this.executeUpdateFuture(this.buildUpdateRequest(model), options);
+    }
+
+    private CompletableFuture<UpdateResponse> executeUpdateFuture(final UpdateRequest request, final RequestOptions options) {
+        final CompletableFuture<UpdateResponse> future = new CompletableFuture<>();
+        this.evict(request.id());
+        this.limitAsync(releasing -> this.getElsa().client.updateAsync(request, options, releasing), this.evicting(this.completing(future)));
+        return future;
     }
 
     public UpdateRequest buildUpdateRequest(final T model) {
         return new UpdateRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, this.getIdOrThrow(model))
-                .doc(this.getJsonMapper().toJson(model), XContentType.JSON);
+                .doc(this.getJsonMapper().toJson(model), XContentType.JSON)
+                .routing(this.getRouting(model));
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // PARTIAL UPDATE
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Sends only the given fields instead of the whole model. Updating a non-existing document causes an exception.
+     */
+    public UpdateResponse updateFields(final String id, final Map<String, ?> fields) throws ElsaException {
+        return this.updateFields(new PartialUpdate(id).setAll(fields), RequestOptions.DEFAULT);
+    }
+
+    public UpdateResponse updateFields(final PartialUpdate update) throws ElsaException {
+        return this.updateFields(update, RequestOptions.DEFAULT);
+    }
+
+    public UpdateResponse updateFields(final PartialUpdate update, final RequestOptions options) throws ElsaException {
+        return this.executeUpdate(this.buildPartialUpdateRequest(update), options);
+    }
+
+    /**
+     * This updates the fields asynchronously. Fails with an ElsaException, e.g. if the document doesn't exist.
+     */
+    public CompletableFuture<UpdateResponse> updateFieldsFuture(final PartialUpdate update) {
+        return this.updateFieldsFuture(update, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<UpdateResponse> updateFieldsFuture(final PartialUpdate update, final RequestOptions options) {
+        return this.executeUpdateFuture(this.buildPartialUpdateRequest(update), options);
+    }
+
+    /**
+     * Increments a numeric field on the server via script. Retries up to 3 times on version conflicts, which is
+     * safe because increments don't depend on the order.
+     */
+    public UpdateResponse increment(final String id, final String field, final long by) throws ElsaException {
+        return this.updateFields(new PartialUpdate(id).increment(field, by).retryOnConflict(3), RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Sends the partial updates via _bulk, see updateAll(). BulkResult.Item.getModel() returns the PartialUpdate.
+     */
+    public BulkResult<PartialUpdate> updateFieldsAll(final Collection<PartialUpdate> updates) throws ElsaException {
+        return this.updateFieldsAll(updates, RequestOptions.DEFAULT);
+    }
+
+    public BulkResult<PartialUpdate> updateFieldsAll(final Collection<PartialUpdate> updates, final RequestOptions options) throws ElsaException {
+        return this.bulk(updates, this::buildPartialUpdateRequest, options);
+    }
+
+    /**
+     * Can also be added to the BulkProcessor.
+     */
+    public UpdateRequest buildPartialUpdateRequest(final PartialUpdate update) {
+        Objects.requireNonNull(update, "PartialUpdate must not be NULL.");
+        if (update.isEmpty()) {
+            throw new IllegalArgumentException("PartialUpdate for ID '" + update.getId() + "' has no fields to update.");
+        }
+        final UpdateRequest request = new UpdateRequest(this.getIndexConfig().getIndexName(), ElsaStatics.DUMMY_TYPE, update.getId())
+                .retryOnConflict(update.getRetryOnConflict())
+                .routing(this.checkRouting(update.getId(), update.getRouting()));
+        final String fields = this.getJsonMapper().toJson(new HashMap<>(update.getFields()));
+        if (update.getIncrements().isEmpty()) {
+            return request.doc(fields, XContentType.JSON);
+        }
+
+        final Map<String, Object> params = new HashMap<>();
+        params.put("fields", XContentHelper.convertToMap(new BytesArray(fields), false, XContentType.JSON).v2());
+        params.put("increments", new HashMap<>(update.getIncrements()));
+        return request.script(new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, PARTIAL_UPDATE_SCRIPT, params));
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // UPSERT
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Indexes the model if the document doesn't exist, otherwise merges it into the existing document (doc_as_upsert).
+     * Needs only one request, the model must have an ID.
+     */
+    public UpdateResponse upsert(final T model) throws ElsaException {
+        return this.upsert(model, RequestOptions.DEFAULT);
+    }
+
+    public UpdateResponse upsert(final T model, final RequestOptions options) throws ElsaException {
+        return this.executeUpdate(this.buildUpsertRequest(model), options);
+    }
+
+    public CompletableFuture<UpdateResponse> upsertFuture(final T model) {
+        return this.upsertFuture(model, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<UpdateResponse> upsertFuture(final T model, final RequestOptions options) {
+        return this.executeUpdateFuture(this.buildUpsertRequest(model), options);
+    }
+
+    /**
+     * Indexes insertModel if the document doesn't exist, otherwise applies the PartialUpdate, e.g. to increment a
+     * counter which starts with the value of the model. The model must have the same ID as the PartialUpdate.
+     */
+    public UpdateResponse upsertFields(final PartialUpdate update, final T insertModel) throws ElsaException {
+        return this.upsertFields(update, insertModel, RequestOptions.DEFAULT);
+    }
+
+    public UpdateResponse upsertFields(final PartialUpdate update, final T insertModel, final RequestOptions options) throws ElsaException {
+        return this.executeUpdate(this.buildUpsertRequest(update, insertModel), options);
+    }
+
+    /**
+     * Upserts all models via _bulk, see upsert(). The models must have IDs.
+     */
+    public BulkResult<T> upsertAll(final Collection<T> models) throws ElsaException {
+        return this.upsertAll(models, RequestOptions.DEFAULT);
+    }
+
+    public BulkResult<T> upsertAll(final Collection<T> models, final RequestOptions options) throws ElsaException {
+        return this.bulk(models, this::buildUpsertRequest, options);
+    }
+
+    /**
+     * Can also be added to the BulkProcessor.
+     */
+    public UpdateRequest buildUpsertRequest(final T model) {
+        return this.buildUpdateRequest(model).docAsUpsert(true);
+    }
+
+    public UpdateRequest buildUpsertRequest(final PartialUpdate update, final T insertModel) {
+        Objects.requireNonNull(update, "PartialUpdate must not be NULL.");
+        Objects.requireNonNull(insertModel, "insertModel must not be NULL.");
+        if (!update.getId().equals(this.getIdOrThrow(insertModel))) {
+            throw new IllegalArgumentException("insertModel must have the ID of the PartialUpdate '" + update.getId() +
+                    "', got: " + insertModel.getId());
+        }
+        if (!Objects.equals(update.getRouting(), this.getRouting(insertModel))) {
+            throw new IllegalArgumentException("insertModel must have the routing of the PartialUpdate '" + update.getRouting() +
+                    "', got: " + this.getRouting(insertModel));
+        }
+        return this.buildPartialUpdateRequest(update)
+                .upsert(this.getJsonMapper().toJson(insertModel), XContentType.JSON);
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // BY QUERY
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Deletes all documents which match the query within one request and waits for completion. For long running
+     * operations use submitDeleteByQuery() instead, otherwise the request might time out.
+     */
+    public ByQueryResponse deleteByQuery(final ByQuerySettings settings) throws ElsaException {
+        return this.deleteByQuery(settings, RequestOptions.DEFAULT);
+    }
+
+    public ByQueryResponse deleteByQuery(final ByQuerySettings settings, final RequestOptions options) throws ElsaException {
+        final Request request = this.buildByQueryRequest(Endpoint.BY_QUERY.deleteByQuery(this.getIndexConfig().getIndexName()), settings, false, true, options);
+        return ResponseFactory.createByQueryResponse(this.performByQueryRequest(request));
+    }
+
+    /**
+     * Updates all documents which match the query, e.g. with ByQuerySettings.script(). Without script the documents
+     * are just reindexed, e.g. to pick up new mappings.
+     */
+    public ByQueryResponse updateByQuery(final ByQuerySettings settings) throws ElsaException {
+        return this.updateByQuery(settings, RequestOptions.DEFAULT);
+    }
+
+    public ByQueryResponse updateByQuery(final ByQuerySettings settings, final RequestOptions options) throws ElsaException {
+        final Request request = this.buildByQueryRequest(Endpoint.BY_QUERY.updateByQuery(this.getIndexConfig().getIndexName()), settings, true, true, options);
+        return ResponseFactory.createByQueryResponse(this.performByQueryRequest(request));
+    }
+
+    /**
+     * Starts _delete_by_query with wait_for_completion=false.
+     *
+     * @return task ID, use it with getTask() or awaitTask()
+     */
+    public String submitDeleteByQuery(final ByQuerySettings settings) throws ElsaException {
+        return this.submitDeleteByQuery(settings, RequestOptions.DEFAULT);
+    }
+
+    public String submitDeleteByQuery(final ByQuerySettings settings, final RequestOptions options) throws ElsaException {
+        final Request request = this.buildByQueryRequest(Endpoint.BY_QUERY.deleteByQuery(this.getIndexConfig().getIndexName()), settings, false, false, options);
+        return ResponseFactory.createTaskIdResponse(this.performByQueryRequest(request));
+    }
+
+    /**
+     * Starts _update_by_query with wait_for_completion=false.
+     *
+     * @return task ID, use it with getTask() or awaitTask()
+     */
+    public String submitUpdateByQuery(final ByQuerySettings settings) throws ElsaException {
+        return this.submitUpdateByQuery(settings, RequestOptions.DEFAULT);
+    }
+
+    public String submitUpdateByQuery(final ByQuerySettings settings, final RequestOptions options) throws ElsaException {
+        final Request request = this.buildByQueryRequest(Endpoint.BY_QUERY.updateByQuery(this.getIndexConfig().getIndexName()), settings, true, false, options);
+        return ResponseFactory.createTaskIdResponse(this.performByQueryRequest(request));
+    }
+
+    /**
+     * @return status of the task incl. progress, or the result if it's completed
+     */
+    public TaskResponse getTask(final String taskId) throws ElsaException {
+        return this.getTask(taskId, RequestOptions.DEFAULT);
+    }
+
+    public TaskResponse getTask(final String taskId, final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(taskId, "taskId must not be NULL.");
+        final Request request = new Request(Method.GET, Endpoint.TASKS.getTask(taskId));
+        request.setOptions(options);
+        try {
+            return ResponseFactory.createTaskResponse(this.limit(() -> this.getElsa().client.getLowLevelClient().performRequest(request)));
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    /**
+     * Polls the task until it's completed. The progressListener receives every polled TaskResponse, e.g. to log
+     * TaskResponse.Status.getProgress(). The task keeps running on the cluster if maxWait expires, cancel it via the
+     * tasks API if needed.
+     *
+     * @param maxWait throws an ElsaIOException if the task isn't completed within this time
+     * @return result of the task, throws if the task failed
+     */
+    public ByQueryResponse awaitTask(final String taskId,
+                                     final TimeValue pollInterval,
+                                     final TimeValue maxWait,
+                                     final Consumer<TaskResponse> progressListener) throws ElsaException {
+        Objects.requireNonNull(pollInterval, "pollInterval must not be NULL.");
+        Objects.requireNonNull(maxWait, "maxWait must not be NULL.");
+        Objects.requireNonNull(progressListener, "progressListener must not be NULL.");
+        final long deadline = System.currentTimeMillis() + maxWait.millis();
+        while (true) {
+            final TaskResponse task = this.getTask(taskId);
+            progressListener.accept(task);
+            if (Boolean.TRUE.equals(task.getCompleted())) {
+                this.evictAll();
+                if (task.getError() != null) {
+                    throw new ElsaElasticsearchException(new ElasticsearchException("Task '" + taskId + "' failed: " + task.getError()));
+                }
+                return task.getResponse();
+            }
+            final long remainingMillis = deadline - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                throw new ElsaIOException(new IOException("Task '" + taskId + "' wasn't completed within " + maxWait + "."));
+            }
+            try {
+                Thread.sleep(Math.min(pollInterval.millis(), remainingMillis));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ElsaIOException(new InterruptedIOException("Interrupted while waiting for task '" + taskId + "'."));
+            }
+        }
+    }
+
+    private Request buildByQueryRequest(final String endpoint,
+                                        final ByQuerySettings settings,
+                                        final boolean withScript,
+                                        final boolean waitForCompletion,
+                                        final RequestOptions options) {
+        Objects.requireNonNull(settings, "ByQuerySettings must not be NULL.");
+        final Request request = new Request(Method.POST, endpoint);
+        request.setOptions(options);
+        request.addParameters(settings.getParameters());
+        request.addParameter("wait_for_completion", String.valueOf(waitForCompletion));
+        request.setEntity(RequestBody.asJson(settings.createBody(withScript)));
+        return request;
+    }
+
+    /**
+     * The documents changed by the query are unknown, so the whole DocumentCache is invalidated.
+     */
+    private Response performByQueryRequest(final Request request) throws ElsaException {
+        try {
+            this.evictAll();
+            final Response response = this.limit(() -> this.getElsa().client.getLowLevelClient().performRequest(request));
+            this.evictAll();
+            return response;
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // BULK
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Indexes all models via _bulk. Models without ID get the ID assigned by Elasticsearch.<br>
+     * The models are split into several BulkRequests if DaoConfig.bulkMaxActions or DaoConfig.bulkMaxSize would
+     * be exceeded. Failures of single items don't throw, check BulkResult.hasFailures(). A failed BulkRequest doesn't
+     * throw either, so the results of the other batches aren't lost. Its items are failed with the exception, which
+     * is also in BulkResult.getBatchFailures().
+     */
+    public BulkResult<T> indexAll(final Collection<T> models) throws ElsaException {
+        return this.indexAll(models, RequestOptions.DEFAULT);
+    }
+
+    public BulkResult<T> indexAll(final Collection<T> models, final RequestOptions options) throws ElsaException {
+        return this.bulk(models, this::buildIndexRequest, options);
+    }
+
+    /**
+     * Updates all models via _bulk. Updating a non-existing document results in a failed item.
+     */
+    public BulkResult<T> updateAll(final Collection<T> models) throws ElsaException {
+        return this.updateAll(models, RequestOptions.DEFAULT);
+    }
+
+    public BulkResult<T> updateAll(final Collection<T> models, final RequestOptions options) throws ElsaException {
+        return this.bulk(models, this::buildUpdateRequest, options);
+    }
+
+    /**
+     * Deletes all models via _bulk. Deleting a non-existing document results in an item with result NOT_FOUND.
+     */
+    public BulkResult<T> deleteAll(final Collection<T> models) throws ElsaException {
+        return this.deleteAll(models, RequestOptions.DEFAULT);
+    }
+
+    public BulkResult<T> deleteAll(final Collection<T> models, final RequestOptions options) throws ElsaException {
+        return this.bulk(models, this::buildDeleteRequest, options);
+    }
+
+    private <S> BulkResult<S> bulk(final Collection<S> models,
+                                   final Function<S, DocWriteRequest<?>> requestBuilder,
+                                   final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(models, "Models must not be NULL.");
+        final int maxActions = this.getDaoConfig().getBulkMaxActions();
+        final long maxBytes = this.getDaoConfig().getBulkMaxSize().getBytes();
+        final BulkResult<S> result = new BulkResult<>();
+
+        BulkRequest bulkRequest = new BulkRequest();
+        List<S> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (final S model : models) {
+            Objects.requireNonNull(model, "Model must not be NULL.");
+            final DocWriteRequest<?> request = requestBuilder.apply(model);
+            this.evict(request.id());
+            final long requestBytes = request.ramBytesUsed();
+            if (bulkRequest.numberOfActions() > 0 && (bulkRequest.numberOfActions() >= maxActions ||
+                    batchBytes + requestBytes > maxBytes)) {
+                this.executeBulk(bulkRequest, batch, result, options);
+                bulkRequest = new BulkRequest();
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            bulkRequest.add(request);
+            batch.add(model);
+            batchBytes += requestBytes;
+        }
+        if (bulkRequest.numberOfActions() > 0) {
+            this.executeBulk(bulkRequest, batch, result, options);
+        }
+        return result;
+    }
+
+    /**
+     * A failed BulkRequest fails all its items, so the items of the batches which were sent before are kept.
+     */
+    private <S> void executeBulk(final BulkRequest bulkRequest,
+                                 final List<S> batch,
+                                 final BulkResult<S> result,
+                                 final RequestOptions options) {
+        final BulkResponse bulkResponse;
+        try {
+            bulkResponse = this.limit(() -> this.getElsa().client.bulk(bulkRequest, options));
+        } catch (final IOException e) {
+            this.failBatch(bulkRequest, batch, result, e, new ElsaIOException(e));
+            return;
+        } catch (final ElasticsearchException e) {
+            this.failBatch(bulkRequest, batch, result, e, new ElsaElasticsearchException(e));
+            return;
+        }
+
+        final BulkItemResponse[] items = bulkResponse.getItems();
+        for (int i = 0; i < items.length; i++) {
+            final S model = batch.get(i);
+            if (!items[i].isFailed() && model instanceof ElsaModel && ((ElsaModel) model).getId() == null) {
+                ((ElsaModel) model).setId(items[i].getId());
+            }
+            this.evict(items[i].getId());
+            result.add(model, items[i]);
+        }
+        result.incrementBatches();
+    }
+
+    private <S> void failBatch(final BulkRequest bulkRequest,
+                               final List<S> batch,
+                               final BulkResult<S> result,
+                               final Exception cause,
+                               final ElsaException failure) {
+        final List<DocWriteRequest<?>> requests = bulkRequest.requests();
+        for (int i = 0; i < requests.size(); i++) {
+            final DocWriteRequest<?> request = requests.get(i);
+            result.add(batch.get(i), BulkItemResponse.failure(i, request.opType(),
+                    new BulkItemResponse.Failure(request.index(), request.type(), request.id(), cause)));
+        }
+        result.addBatchFailure(failure);
+        result.incrementBatches();
     }
 
 
@@ -232,6 +1095,115 @@ public class CrudDAO<T extends ElsaModel> extends SearchDAO<T> {
     // PRIVATE METHODS
     // ------------------------------------------------------------------------------------------ //
 
+    private T getCached(final String id, final String routing) {
+        final DocumentCache cache = this.getDaoConfig().getDocumentCache();
+        if (cache == null) {
+            return null;
+        }
+        final byte[] source = cache.get(this.getIndexConfig().getIndexName(), routing, id);
+        if (source == null) {
+            return null;
+        }
+        final T model = this.getJsonMapper().fromJson(source);
+        model.setId(id);
+        return model;
+    }
+
+    private void cache(final GetResponse response, final String routing) {
+        final DocumentCache cache = this.getDaoConfig().getDocumentCache();
+        if (cache != null && response.isExists()) {
+            cache.put(this.getIndexConfig().getIndexName(), routing, response.getId(), response.getSourceAsBytes());
+        }
+    }
+
+    /**
+     * Also increments the generation of the index, which invalidates the cached searches, see SearchResultCache.
+     */
+    private void evictAll() {
+        this.getElsa().getIndexGenerations().increment(this.getIndexConfig().getIndexName());
+        final DocumentCache cache = this.getDaoConfig().getDocumentCache();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Also increments the generation of the index, which invalidates the cached searches, see SearchResultCache.
+     */
+    private void evict(final String id) {
+        this.getElsa().getIndexGenerations().increment(this.getIndexConfig().getIndexName());
+        final DocumentCache cache = this.getDaoConfig().getDocumentCache();
+        if (cache != null) {
+            cache.invalidate(this.getIndexConfig().getIndexName(), id);
+        }
+    }
+
+    /**
+     * Evicts the document again once the write is done, in case a concurrent get() or search cached the
+     * old version in the meantime.
+     */
+    private <R extends DocWriteResponse> ActionListener<R> evicting(final ActionListener<R> listener) {
+        return new ActionListener<R>() {
+            @Override
+            public void onResponse(final R response) {
+                CrudDAO.this.evict(response.getId());
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                listener.onFailure(e);
+            }
+        };
+    }
+
+    private T mapGetResponse(final GetResponse response) {
+        if (!response.isExists()) {
+            return null;
+        }
+        final T model = this.getJsonMapper().fromJson(response.getSourceAsBytesRef());
+        model.setId(response.getId());
+        return model;
+    }
+
+    private <P> P mapGetResponse(final GetResponse response, final Class<P> projectionClass) {
+        if (!response.isExists()) {
+            return null;
+        }
+        final P projection = ProjectionMapper.of(this.getJsonMapper()).fromJson(response.getSourceAsBytesRef(), projectionClass);
+        if (projection instanceof ElsaModel) {
+            ((ElsaModel) projection).setId(response.getId());
+        }
+        return projection;
+    }
+
+    /**
+     * @return routing of RoutingAware models, otherwise NULL
+     */
+    private String getRouting(final ElsaModel model) {
+        final String routing = model instanceof RoutingAware ? ((RoutingAware) model).getRouting() : null;
+        return this.checkRouting(model.getId(), routing);
+    }
+
+    /**
+     * Fails fast instead of waiting for the routing_missing_exception of Elasticsearch.
+     */
+    private String checkRouting(final String id, final String routing) {
+        if (routing == null && this.getIndexConfig().isRoutingRequired()) {
+            throw new IllegalStateException("Routing is required for index '" + this.getIndexConfig().getIndexName() +
+                    "' but missing for ID '" + id + "'.");
+        }
+        return routing;
+    }
+
+    /**
+     * checkRouting() for reads without routing.
+     */
+    private String checkId(final String id) {
+        this.checkRouting(id, null);
+        return id;
+    }
+
     private String getIdOrThrow(final ElsaModel model) {
         final String id = model.getId();
         if (id == null || id.equals("")) {
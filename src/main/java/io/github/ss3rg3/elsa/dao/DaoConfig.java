@@ -3,8 +3,12 @@ package io.github.ss3rg3.elsa.dao;
 import com.google.gson.Gson;
 import io.github.ss3rg3.elsa.model.ElsaModel;
 import io.github.ss3rg3.elsa.model.IndexConfig;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class DaoConfig {
 
@@ -13,6 +17,20 @@ public class DaoConfig {
     private final IndexConfig indexConfig;
     private final Gson gson;
 
+    // OPTIONAL SETTINGS
+    private int multiGetChunkSize = 500;
+    private int bulkMaxActions = 1000;
+    private ByteSizeValue bulkMaxSize = ByteSizeValue.ofMb(5);
+    private Executor callbackExecutor;
+    private RequestLimiter requestLimiter;
+    private DocumentCache documentCache;
+    private SearchResultCache searchResultCache;
+    private boolean coalesceRequests = false;
+    private TimeValue batchGetsWindow;
+    private int batchGetsMaxSize;
+    private int parallelHitMappingThreshold = 0;
+    private Executor parallelHitMappingExecutor;
+
     public DaoConfig(final Class<? extends ElsaDAO> daoClass,
                      final IndexConfig indexConfig) {
         Objects.requireNonNull(daoClass, "daoClass must not be null");
@@ -34,6 +52,122 @@ public class DaoConfig {
         this.gson = gson;
     }
 
+    /**
+     * Id collections bigger than this are split into several _mget requests which are sent concurrently,
+     * see CrudDAO.getAll().
+     */
+    public DaoConfig multiGetChunkSize(final int defaultIs500) {
+        if (defaultIs500 <= 0) {
+            throw new IllegalArgumentException("multiGetChunkSize must be greater than 0, got: " + defaultIs500);
+        }
+        this.multiGetChunkSize = defaultIs500;
+        return this;
+    }
+
+    /**
+     * The bulk methods in CrudDAO split the models into several BulkRequests if a request would exceed this
+     * number of actions.
+     */
+    public DaoConfig bulkMaxActions(final int defaultIs1000) {
+        if (defaultIs1000 <= 0) {
+            throw new IllegalArgumentException("bulkMaxActions must be greater than 0, got: " + defaultIs1000);
+        }
+        this.bulkMaxActions = defaultIs1000;
+        return this;
+    }
+
+    /**
+     * The bulk methods in CrudDAO split the models into several BulkRequests if a request would exceed this
+     * size. Must be lower than `http.max_content_length` of the cluster.
+     */
+    public DaoConfig bulkMaxSize(final ByteSizeValue defaultIs5mb) {
+        Objects.requireNonNull(defaultIs5mb, "bulkMaxSize must not be null");
+        if (defaultIs5mb.getBytes() <= 0) {
+            throw new IllegalArgumentException("bulkMaxSize must be greater than 0, got: " + defaultIs5mb);
+        }
+        this.bulkMaxSize = defaultIs5mb;
+        return this;
+    }
+
+    /**
+     * Responses of async requests are mapped and passed to listeners and futures on this executor. Otherwise this
+     * happens on the I/O dispatcher threads of the low level client, which then can't move bytes for other
+     * requests in the meantime. Recommended if listeners do more than trivial work.
+     */
+    public DaoConfig callbackExecutor(final Executor defaultIsIoDispatcherThread) {
+        this.callbackExecutor = defaultIsIoDispatcherThread;
+        return this;
+    }
+
+    /**
+     * Caps the number of in-flight requests of the DAO. Use the same RequestLimiter for several DAOs to share
+     * the limit.
+     */
+    public DaoConfig requestLimiter(final RequestLimiter defaultIsUnlimited) {
+        this.requestLimiter = defaultIsUnlimited;
+        return this;
+    }
+
+    /**
+     * Caches the _source of documents retrieved via CrudDAO.get(), getFuture() and getAll().
+     */
+    public DaoConfig documentCache(final DocumentCache defaultIsNone) {
+        this.documentCache = defaultIsNone;
+        return this;
+    }
+
+    /**
+     * Caches the responses of SearchDAO.search() and all methods based on it, see SearchResultCache. Only searches on
+     * the index of the DAO are cached. Writes via CrudDAOs and the BulkProcessors of the ElsaClient invalidate them.
+     */
+    public DaoConfig searchResultCache(final SearchResultCache defaultIsNone) {
+        this.searchResultCache = defaultIsNone;
+        return this;
+    }
+
+    /**
+     * Concurrent identical gets (same index and ID) and searches (same SearchRequest) share one in-flight request,
+     * see RequestCoalescer. Scroll searches are never coalesced.
+     */
+    public DaoConfig coalesceRequests(final boolean defaultIsFalse) {
+        this.coalesceRequests = defaultIsFalse;
+        return this;
+    }
+
+    /**
+     * Single gets via CrudDAO.get() and getFuture() which arrive within the window are sent as one _mget request,
+     * see GetBatcher. Every get waits up to the window, so only use it for many concurrent gets. Gets with
+     * custom RequestOptions are not batched.
+     */
+    public DaoConfig batchGets(final TimeValue window, final int maxBatchSize) {
+        Objects.requireNonNull(window, "window must not be NULL.");
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0, got: " + maxBatchSize);
+        }
+        this.batchGetsWindow = window;
+        this.batchGetsMaxSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * SearchResponseMapper.mapHitsToList() splits pages with at least this many hits into one chunk per thread of
+     * the executor, which are mapped in parallel, the caller maps an additional chunk itself. Smaller pages are
+     * mapped on the calling thread. Use a dedicated executor if searches are mapped on threads of the same
+     * executor, e.g. the callbackExecutor. See HitMappingBenchmark for choosing the threshold.
+     */
+    public DaoConfig parallelHitMapping(final int threshold, final Executor defaultIsCommonForkJoinPool) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be greater than 0, got: " + threshold);
+        }
+        this.parallelHitMappingThreshold = threshold;
+        this.parallelHitMappingExecutor = defaultIsCommonForkJoinPool;
+        return this;
+    }
+
+    public DaoConfig parallelHitMapping(final int threshold) {
+        return this.parallelHitMapping(threshold, ForkJoinPool.commonPool());
+    }
+
     public Class<? extends ElsaModel> getModelClass() {
         return this.modelClass;
     }
@@ -49,4 +183,58 @@ public class DaoConfig {
     public Gson getGson() {
         return this.gson;
     }
+
+    public int getMultiGetChunkSize() {
+        return this.multiGetChunkSize;
+    }
+
+    public int getBulkMaxActions() {
+        return this.bulkMaxActions;
+    }
+
+    public ByteSizeValue getBulkMaxSize() {
+        return this.bulkMaxSize;
+    }
+
+    public Executor getCallbackExecutor() {
+        return this.callbackExecutor;
+    }
+
+    public RequestLimiter getRequestLimiter() {
+        return this.requestLimiter;
+    }
+
+    public DocumentCache getDocumentCache() {
+        return this.documentCache;
+    }
+
+    public SearchResultCache getSearchResultCache() {
+        return this.searchResultCache;
+    }
+
+    public boolean isCoalesceRequests() {
+        return this.coalesceRequests;
+    }
+
+    /**
+     * @return NULL if get batching is disabled
+     */
+    public TimeValue getBatchGetsWindow() {
+        return this.batchGetsWindow;
+    }
+
+    public int getBatchGetsMaxSize() {
+        return this.batchGetsMaxSize;
+    }
+
+    /**
+     * @return 0 if parallel hit mapping is disabled
+     */
+    public int getParallelHitMappingThreshold() {
+        return this.parallelHitMappingThreshold;
+    }
+
+    public Executor getParallelHitMappingExecutor() {
+        return this.parallelHitMappingExecutor;
+    }
 }
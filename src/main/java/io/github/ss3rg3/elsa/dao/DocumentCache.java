@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.elasticsearch.core.TimeValue;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache for CrudDAO.get() and getRouted(). Register it via DaoConfig.documentCache(). Entries are keyed by
+ * index name, routing and ID and hold the raw _source, so every get() maps a fresh model instance.<br>
+ * Entries are invalidated when the same DAO indexes, updates or deletes the document. Writes from anywhere else
+ * (other DAOs, BulkProcessor, other services) are only picked up after the TTL.
+ */
+public class DocumentCache {
+
+    private final Cache<String, Entry> cache;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public DocumentCache(final long maximumSize, final TimeValue timeToLive) {
+        Objects.requireNonNull(timeToLive, "timeToLive must not be NULL.");
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be greater than 0, got: " + maximumSize);
+        }
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive.millis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return _source of the document or NULL if not cached
+     */
+    public byte[] get(final String indexName, final String id) {
+        return this.get(indexName, null, id);
+    }
+
+    /**
+     * @param routing NULL for documents indexed without routing
+     * @return _source of the document or NULL if not cached with this routing
+     */
+    public byte[] get(final String indexName, final String routing, final String id) {
+        final Entry entry = this.cache.getIfPresent(key(indexName, id));
+        if (entry == null || !Objects.equals(entry.routing, routing)) {
+            this.missCount.increment();
+            return null;
+        }
+        this.hitCount.increment();
+        return entry.source;
+    }
+
+    public void put(final String indexName, final String id, final byte[] source) {
+        this.put(indexName, null, id, source);
+    }
+
+    public void put(final String indexName, final String routing, final String id, final byte[] source) {
+        this.cache.put(key(indexName, id), new Entry(routing, source));
+    }
+
+    /**
+     * Invalidates the document regardless of its routing.
+     */
+    public void invalidate(final String indexName, final String id) {
+        if (id != null) {
+            this.cache.invalidate(key(indexName, id));
+        }
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    public long size() {
+        return this.cache.size();
+    }
+
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * @return Number of entries removed because of size or TTL, invalidations are not counted
+     */
+    public long getEvictionCount() {
+        return this.cache.stats().evictionCount();
+    }
+
+    /**
+     * The routing is stored in the entry instead of the key, so that writes can invalidate a document without
+     * knowing its routing.
+     */
+    private static String key(final String indexName, final String id) {
+        return indexName + "/" + id;
+    }
+
+    private static class Entry {
+        private final String routing;
+        private final byte[] source;
+
+        private Entry(final String routing, final byte[] source) {
+            this.routing = routing;
+            this.source = source;
+        }
+    }
+
+}
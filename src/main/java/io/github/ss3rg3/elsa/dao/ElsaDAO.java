@@ -16,33 +16,130 @@
 
 package io.github.ss3rg3.elsa.dao;
 
+import com.google.gson.Gson;
 import io.github.ss3rg3.elsa.ElsaClient;
+import io.github.ss3rg3.elsa.helpers.Futures;
 import io.github.ss3rg3.elsa.jsonmapper.GsonAdapter;
 import io.github.ss3rg3.elsa.jsonmapper.JsonMapper;
 import io.github.ss3rg3.elsa.model.ElsaModel;
 import io.github.ss3rg3.elsa.model.IndexConfig;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.CheckedSupplier;
 
+import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 public class ElsaDAO<T extends ElsaModel> {
 
+    protected final DaoConfig daoConfig;
     protected final Class<T> modelClass;
     protected final IndexConfig indexConfig;
     protected final ElsaClient elsa;
     protected final JsonMapper<T> jsonMapper;
     protected final SearchResponseMapper<T> searchResponseMapper;
+    protected final RequestCoalescer requestCoalescer;
 
     @SuppressWarnings("unchecked")
     public ElsaDAO(final DaoConfig daoConfig, final ElsaClient elsa) {
         Objects.requireNonNull(daoConfig, "daoConfig must not be null");
         Objects.requireNonNull(elsa, "elsa must not be null");
 
+        this.daoConfig = daoConfig;
         this.modelClass = (Class<T>) daoConfig.getModelClass();
         this.indexConfig = daoConfig.getIndexConfig();
         this.elsa = elsa;
 
-        this.jsonMapper = new GsonAdapter<>(this.modelClass, daoConfig.getGson() == null ? elsa.gson : daoConfig.getGson());
+        this.jsonMapper = new GsonAdapter<>(this.modelClass, this.getGson());
         this.searchResponseMapper = new SearchResponseMapper<>(this);
+        this.requestCoalescer = daoConfig.isCoalesceRequests() ? new RequestCoalescer() : null;
+    }
+
+    /**
+     * Executes the request within the limits of DaoConfig.requestLimiter, if one is configured.
+     * Rejections are thrown as ElasticsearchException with status 429.
+     */
+    protected <R> R limit(final CheckedSupplier<R, IOException> request) throws IOException {
+        final RequestLimiter limiter = this.daoConfig.getRequestLimiter();
+        if (limiter == null) {
+            return request.get();
+        }
+        return limiter.execute(request);
+    }
+
+    /**
+     * Async version of limit(). Rejections are passed to the listener.
+     */
+    protected <R> void limitAsync(final Consumer<ActionListener<R>> request, final ActionListener<R> listener) {
+        final RequestLimiter limiter = this.daoConfig.getRequestLimiter();
+        if (limiter == null) {
+            request.accept(listener);
+        } else {
+            limiter.executeAsync(request, listener);
+        }
+    }
+
+    /**
+     * Wraps the listener, so that it is called on DaoConfig.callbackExecutor instead of the I/O dispatcher thread.
+     * Returns the listener itself if no executor was configured.
+     */
+    protected <R> ActionListener<R> dispatch(final ActionListener<R> listener) {
+        final Executor executor = this.daoConfig.getCallbackExecutor();
+        if (executor == null) {
+            return listener;
+        }
+        return new ActionListener<R>() {
+            @Override
+            public void onResponse(final R response) {
+                try {
+                    executor.execute(() -> listener.onResponse(response));
+                } catch (final RejectedExecutionException e) {
+                    listener.onFailure(e);
+                }
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                try {
+                    executor.execute(() -> listener.onFailure(e));
+                } catch (final RejectedExecutionException rejected) {
+                    e.addSuppressed(rejected);
+                    listener.onFailure(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Listener which completes the future on DaoConfig.callbackExecutor, so that mapping stages added via
+     * thenApply() run there as well.
+     */
+    protected <R> ActionListener<R> completing(final CompletableFuture<R> future) {
+        return this.dispatch(Futures.completing(future));
+    }
+
+    /**
+     * Returns a future which is completed on DaoConfig.callbackExecutor. Returns the future itself if no executor
+     * was configured.
+     */
+    protected <R> CompletableFuture<R> dispatch(final CompletableFuture<R> future) {
+        final Executor executor = this.daoConfig.getCallbackExecutor();
+        if (executor == null) {
+            return future;
+        }
+        final CompletableFuture<R> dispatched = new CompletableFuture<>();
+        final ActionListener<R> listener = this.dispatch(Futures.completing(dispatched));
+        future.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                listener.onFailure(Futures.toElsaException(throwable));
+            } else {
+                listener.onResponse(response);
+            }
+        });
+        return dispatched;
     }
 
     public ElsaClient getElsa() {
@@ -61,7 +158,25 @@ public class ElsaDAO<T extends ElsaModel> {
         return this.searchResponseMapper;
     }
 
+    /**
+     * @return Gson of the DaoConfig or, if not set, the one of the ElsaClient. The default JsonMapper uses it too.
+     */
+    public Gson getGson() {
+        return this.daoConfig.getGson() == null ? this.elsa.gson : this.daoConfig.getGson();
+    }
+
     public IndexConfig getIndexConfig() {
         return this.indexConfig;
     }
+
+    public DaoConfig getDaoConfig() {
+        return this.daoConfig;
+    }
+
+    /**
+     * @return NULL if DaoConfig.coalesceRequests is not set
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return this.requestCoalescer;
+    }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.helpers.Futures;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.core.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collects single gets which arrive within a time window and sends them as one _mget request (DataLoader style).
+ * Enable it via DaoConfig.batchGets(). A batch is sent when the window has passed or the batch is full, whatever
+ * comes first.
+ */
+public class GetBatcher {
+
+    /**
+     * Only triggers the flush, the _mget request itself is async. So one thread for all batchers is enough.
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "elsa-get-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String indexName;
+    private final boolean routingRequired;
+    private final long windowInMillis;
+    private final int maxBatchSize;
+    private final Function<MultiGetRequest, CompletableFuture<MultiGetResponse>> sender;
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder getCount = new LongAdder();
+
+    private final Object lock = new Object();
+    private List<PendingGet> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public GetBatcher(final String indexName,
+                      final TimeValue window,
+                      final int maxBatchSize,
+                      final Function<MultiGetRequest, CompletableFuture<MultiGetResponse>> sender) {
+        this(indexName, false, window, maxBatchSize, sender);
+    }
+
+    /**
+     * @param routingRequired if true then submit() without routing fails fast, see IndexConfig.isRoutingRequired()
+     */
+    public GetBatcher(final String indexName,
+                      final boolean routingRequired,
+                      final TimeValue window,
+                      final int maxBatchSize,
+                      final Function<MultiGetRequest, CompletableFuture<MultiGetResponse>> sender) {
+        Objects.requireNonNull(indexName, "indexName must not be NULL.");
+        Objects.requireNonNull(window, "window must not be NULL.");
+        Objects.requireNonNull(sender, "sender must not be NULL.");
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0, got: " + maxBatchSize);
+        }
+        this.indexName = indexName;
+        this.routingRequired = routingRequired;
+        this.windowInMillis = window.millis();
+        this.maxBatchSize = maxBatchSize;
+        this.sender = sender;
+    }
+
+    /**
+     * @return future of the GetResponse, fails with an ElsaException
+     */
+    public CompletableFuture<GetResponse> submit(final String id) {
+        return this.submit(id, null);
+    }
+
+    /**
+     * @param routing NULL for documents indexed without routing
+     * @return future of the GetResponse, fails with an ElsaException
+     */
+    public CompletableFuture<GetResponse> submit(final String id, final String routing) {
+        if (routing == null && this.routingRequired) {
+            throw new IllegalStateException("Routing is required for index '" + this.indexName +
+                    "' but missing for ID '" + id + "'.");
+        }
+        final PendingGet pendingGet = new PendingGet(id, routing);
+        List<PendingGet> fullBatch = null;
+        synchronized (this.lock) {
+            this.pending.add(pendingGet);
+            if (this.pending.size() >= this.maxBatchSize) {
+                fullBatch = this.takePending();
+            } else if (this.pending.size() == 1) {
+                this.scheduledFlush = scheduler.schedule(this::flush, this.windowInMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            this.send(fullBatch);
+        }
+        return pendingGet.future;
+    }
+
+    /**
+     * Sends the pending gets immediately.
+     */
+    public void flush() {
+        final List<PendingGet> batch;
+        synchronized (this.lock) {
+            batch = this.takePending();
+        }
+        if (!batch.isEmpty()) {
+            this.send(batch);
+        }
+    }
+
+    /**
+     * @return Number of _mget requests sent
+     */
+    public long getBatchCount() {
+        return this.batchCount.sum();
+    }
+
+    /**
+     * @return Number of single gets which were sent via _mget
+     */
+    public long getGetCount() {
+        return this.getCount.sum();
+    }
+
+    private List<PendingGet> takePending() {
+        final List<PendingGet> batch = this.pending;
+        this.pending = new ArrayList<>();
+        if (this.scheduledFlush != null) {
+            this.scheduledFlush.cancel(false);
+            this.scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(final List<PendingGet> batch) {
+        this.batchCount.increment();
+        this.getCount.add(batch.size());
+
+        final MultiGetRequest request = new MultiGetRequest();
+        for (final PendingGet pendingGet : batch) {
+            request.add(new MultiGetRequest.Item(this.indexName, pendingGet.id).routing(pendingGet.routing));
+        }
+
+        final CompletableFuture<MultiGetResponse> response;
+        try {
+            response = this.sender.apply(request);
+        } catch (final RuntimeException e) {
+            batch.forEach(pendingGet -> pendingGet.future.completeExceptionally(Futures.toElsaException(e)));
+            return;
+        }
+        response.whenComplete((multiGetResponse, throwable) -> {
+            if (throwable != null) {
+                batch.forEach(pendingGet -> pendingGet.future.completeExceptionally(Futures.toElsaException(throwable)));
+                return;
+            }
+            final MultiGetItemResponse[] items = multiGetResponse.getResponses();
+            for (int i = 0; i < batch.size(); i++) {
+                if (items[i].isFailed()) {
+                    batch.get(i).future.completeExceptionally(Futures.toElsaException(items[i].getFailure().getFailure()));
+                } else {
+                    batch.get(i).future.complete(items[i].getResponse());
+                }
+            }
+        });
+    }
+
+    private static class PendingGet {
+        private final String id;
+        private final String routing;
+        private final CompletableFuture<GetResponse> future = new CompletableFuture<>();
+
+        private PendingGet(final String id, final String routing) {
+            this.id = id;
+            this.routing = routing;
+        }
+    }
+
+}
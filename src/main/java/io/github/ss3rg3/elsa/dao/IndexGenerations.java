@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the writes per index which were made via this ElsaClient, i.e. via a CrudDAO or a BulkProcessor of the client.
+ * A SearchResultCache remembers the generation of the index when a response was cached and treats the entry as
+ * stale as soon as the generation has changed.
+ */
+public class IndexGenerations {
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public void increment(final String indexName) {
+        if (indexName != null) {
+            this.generations.computeIfAbsent(indexName, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public long get(final String indexName) {
+        final AtomicLong generation = this.generations.get(indexName);
+        return generation == null ? 0 : generation.get();
+    }
+
+    /**
+     * Generations only grow, so the sum changes as soon as one of the indices was written to.
+     */
+    public long sum(final String... indexNames) {
+        long sum = 0;
+        for (final String indexName : indexNames) {
+            sum += this.get(indexName);
+        }
+        return sum;
+    }
+
+}
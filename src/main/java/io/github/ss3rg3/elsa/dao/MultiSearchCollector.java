@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.helpers.Futures;
+import io.github.ss3rg3.elsa.model.ElsaModel;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.client.RequestOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Collects the searches of one scope (e.g. rendering a dashboard) and sends them as one _msearch request, see
+ * SearchDAO.multiSearchCollector(). Use it in try-with-resources, close() sends the pending searches:
+ * <pre>
+ * try (MultiSearchCollector&lt;Model&gt; collector = dao.multiSearchCollector()) {
+ *     latest = collector.add(latestRequest);
+ *     popular = collector.add(popularRequest);
+ * }
+ * render(latest.get(), popular.get());
+ * </pre>
+ * Each future fails on its own with an ElsaException.
+ */
+public class MultiSearchCollector<T extends ElsaModel> implements AutoCloseable {
+
+    private final SearchDAO<T> dao;
+    private final int maxConcurrentSearches;
+    private final RequestOptions options;
+
+    private final Object lock = new Object();
+    private List<SearchRequest> requests = new ArrayList<>();
+    private List<CompletableFuture<List<T>>> futures = new ArrayList<>();
+
+    MultiSearchCollector(final SearchDAO<T> dao, final int maxConcurrentSearches, final RequestOptions options) {
+        this.dao = dao;
+        this.maxConcurrentSearches = maxConcurrentSearches;
+        this.options = options;
+    }
+
+    /**
+     * @return future of the mapped hits, completes after send()
+     */
+    public CompletableFuture<List<T>> add(final SearchRequest searchRequest) {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        final CompletableFuture<List<T>> future = new CompletableFuture<>();
+        synchronized (this.lock) {
+            this.requests.add(searchRequest);
+            this.futures.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * @return Number of searches which weren't sent yet
+     */
+    public int size() {
+        synchronized (this.lock) {
+            return this.requests.size();
+        }
+    }
+
+    /**
+     * Sends the pending searches as one _msearch request. Afterwards the collector can be reused.
+     */
+    public void send() {
+        final List<SearchRequest> batch;
+        final List<CompletableFuture<List<T>>> batchFutures;
+        synchronized (this.lock) {
+            batch = this.requests;
+            batchFutures = this.futures;
+            this.requests = new ArrayList<>();
+            this.futures = new ArrayList<>();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        this.dao.multiSearchFuture(batch, this.maxConcurrentSearches, this.options).whenComplete((result, throwable) -> {
+            for (int i = 0; i < batchFutures.size(); i++) {
+                if (throwable != null) {
+                    batchFutures.get(i).completeExceptionally(Futures.toElsaException(throwable));
+                    continue;
+                }
+                try {
+                    batchFutures.get(i).complete(result.get(i).getHits());
+                } catch (final ElsaException e) {
+                    batchFutures.get(i).completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        this.send();
+    }
+
+}
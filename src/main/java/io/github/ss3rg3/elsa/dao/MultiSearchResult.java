@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Result of SearchDAO.multiSearch(). Every item links the SearchRequest to its mapped hits or its failure, so one
+ * failed search doesn't fail the others.
+ * The items have the same order as the SearchRequests which were passed in.
+ */
+public class MultiSearchResult<T> {
+
+    private final List<Item<T>> items;
+
+    MultiSearchResult(final List<Item<T>> items) {
+        this.items = items;
+    }
+
+    public List<Item<T>> getItems() {
+        return Collections.unmodifiableList(this.items);
+    }
+
+    public Item<T> get(final int index) {
+        return this.items.get(index);
+    }
+
+    public List<Item<T>> getFailedItems() {
+        return this.items.stream()
+                .filter(Item::isFailed)
+                .collect(Collectors.toList());
+    }
+
+    public boolean hasFailures() {
+        return this.items.stream().anyMatch(Item::isFailed);
+    }
+
+    public static class Item<T> {
+
+        private final SearchRequest request;
+        private final SearchResponse response;
+        private final List<T> hits;
+        private final ElsaException failure;
+
+        static <T> Item<T> success(final SearchRequest request, final SearchResponse response, final List<T> hits) {
+            return new Item<>(request, response, hits, null);
+        }
+
+        static <T> Item<T> failure(final SearchRequest request, final ElsaException failure) {
+            return new Item<>(request, null, null, failure);
+        }
+
+        private Item(final SearchRequest request, final SearchResponse response, final List<T> hits, final ElsaException failure) {
+            this.request = request;
+            this.response = response;
+            this.hits = hits;
+            this.failure = failure;
+        }
+
+        public SearchRequest getRequest() {
+            return this.request;
+        }
+
+        /**
+         * @return NULL if the search failed
+         */
+        public SearchResponse getResponse() {
+            return this.response;
+        }
+
+        /**
+         * @return Hits mapped to your model inclusive the _id field, empty list if no results found
+         * @throws ElsaException the failure of this search
+         */
+        public List<T> getHits() throws ElsaException {
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            return this.hits;
+        }
+
+        public boolean isFailed() {
+            return this.failure != null;
+        }
+
+        /**
+         * @return NULL if the search succeeded
+         */
+        public ElsaException getFailure() {
+            return this.failure;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Changes only the given fields of a document instead of sending the whole model, see CrudDAO.updateFields().
+ * Values are serialized with the Gson of the DAO, i.e. the same way as the fields of the model.<br>
+ * If there are only set() calls, then the fields are sent as partial doc. If there are increments, then everything
+ * is sent as one Painless script. Note that the script replaces objects set via set() while a partial doc merges them.
+ */
+public class PartialUpdate {
+
+    private final String id;
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+    private final Map<String, Long> increments = new LinkedHashMap<>();
+    private int retryOnConflict = 0;
+    private String routing;
+
+    public PartialUpdate(final String id) {
+        Objects.requireNonNull(id, "ID must not be NULL.");
+        this.id = id;
+    }
+
+    /**
+     * Sets the top-level field to the value. NULL sets the field to null.
+     */
+    public PartialUpdate set(final String field, final Object value) {
+        Objects.requireNonNull(field, "field must not be NULL.");
+        this.fields.put(field, value);
+        return this;
+    }
+
+    public PartialUpdate setAll(final Map<String, ?> fields) {
+        Objects.requireNonNull(fields, "fields must not be NULL.");
+        fields.forEach(this::set);
+        return this;
+    }
+
+    /**
+     * Increments the numeric top-level field on the server. A missing or null field counts as 0.
+     */
+    public PartialUpdate increment(final String field, final long by) {
+        Objects.requireNonNull(field, "field must not be NULL.");
+        this.increments.merge(field, by, Long::sum);
+        return this;
+    }
+
+    /**
+     * How often Elasticsearch retries the update if the document was changed between get and reindex.
+     */
+    public PartialUpdate retryOnConflict(final int defaultIs0) {
+        if (defaultIs0 < 0) {
+            throw new IllegalArgumentException("retryOnConflict must not be negative, got: " + defaultIs0);
+        }
+        this.retryOnConflict = defaultIs0;
+        return this;
+    }
+
+    /**
+     * Routing of the document, needed if the model implements RoutingAware.
+     */
+    public PartialUpdate routing(final String defaultIsNone) {
+        this.routing = defaultIsNone;
+        return this;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public Map<String, Object> getFields() {
+        return Collections.unmodifiableMap(this.fields);
+    }
+
+    public Map<String, Long> getIncrements() {
+        return Collections.unmodifiableMap(this.increments);
+    }
+
+    public int getRetryOnConflict() {
+        return this.retryOnConflict;
+    }
+
+    public String getRouting() {
+        return this.routing;
+    }
+
+    public boolean isEmpty() {
+        return this.fields.isEmpty() && this.increments.isEmpty();
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.exceptions.ElsaElasticsearchException;
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.exceptions.ElsaIOException;
+import io.github.ss3rg3.elsa.exceptions.ElsaUncheckedException;
+import io.github.ss3rg3.elsa.model.ElsaModel;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over all hits of a SearchRequest via point-in-time and search_after, see SearchDAO.streamAll().
+ * A page is only fetched when the previous one is consumed, so memory stays constant. The point-in-time is closed
+ * when the last page was consumed or on close(), otherwise it expires after the keep-alive.<br>
+ * Exceptions are thrown as ElsaUncheckedException, because Iterator doesn't allow checked exceptions.
+ */
+public class PointInTimeIterator<T extends ElsaModel> implements Iterator<T>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointInTimeIterator.class);
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final SearchDAO<T> dao;
+    private final SearchSourceBuilder source;
+    private final int pageSize;
+    private final TimeValue keepAlive;
+    private final RequestOptions options;
+    private String pointInTimeId;
+    private Iterator<SearchHit> page = Collections.emptyIterator();
+    private boolean lastPage = false;
+    private boolean closed = false;
+
+    /**
+     * The source of the SearchRequest is copied, its size is used as page size (default 1000). If it has no sort,
+     * then _shard_doc is used. Otherwise Elasticsearch adds _shard_doc as implicit tiebreaker.
+     */
+    PointInTimeIterator(final SearchDAO<T> dao,
+                        final SearchRequest searchRequest,
+                        final TimeValue keepAlive,
+                        final RequestOptions options) throws ElsaException {
+        this.dao = dao;
+        this.keepAlive = keepAlive;
+        this.options = options;
+        this.source = searchRequest.source() == null ? new SearchSourceBuilder() : searchRequest.source().shallowCopy();
+        this.pageSize = this.source.size() > 0 ? this.source.size() : DEFAULT_PAGE_SIZE;
+        this.source.size(this.pageSize).trackTotalHits(false);
+        if (this.source.sorts() == null || this.source.sorts().isEmpty()) {
+            this.source.sort(SortBuilders.fieldSort("_shard_doc"));
+        }
+
+        final String[] indices = searchRequest.indices().length > 0
+                ? searchRequest.indices()
+                : new String[]{dao.getIndexConfig().getIndexName()};
+        final OpenPointInTimeRequest request = new OpenPointInTimeRequest(indices)
+                .keepAlive(keepAlive)
+                .routing(searchRequest.routing())
+                .preference(searchRequest.preference());
+        try {
+            this.pointInTimeId = dao.limit(() -> dao.getElsa().client.openPointInTime(request, options)).getPointInTimeId();
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!this.page.hasNext()) {
+            if (this.lastPage || this.closed) {
+                this.close();
+                return false;
+            }
+            this.fetchNextPage();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return this.dao.getSearchResponseMapper().mapHit(this.page.next());
+    }
+
+    /**
+     * Closes the point-in-time. Failures are only logged, the point-in-time expires after the keep-alive anyway.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.dao.getElsa().client.closePointInTime(new ClosePointInTimeRequest(this.pointInTimeId), this.options);
+        } catch (final IOException | ElasticsearchException e) {
+            logger.warn("Failed to close point-in-time, it expires after " + this.keepAlive, e);
+        }
+    }
+
+    private void fetchNextPage() {
+        this.source.pointInTimeBuilder(new PointInTimeBuilder(this.pointInTimeId).setKeepAlive(this.keepAlive));
+        final SearchRequest request = new SearchRequest().source(this.source);
+        final SearchResponse response;
+        try {
+            response = this.dao.limit(() -> this.dao.getElsa().client.search(request, this.options));
+        } catch (final IOException e) {
+            this.close();
+            throw new ElsaUncheckedException(new ElsaIOException(e));
+        } catch (final ElasticsearchException e) {
+            this.close();
+            throw new ElsaUncheckedException(new ElsaElasticsearchException(e));
+        }
+
+        if (response.pointInTimeId() != null) {
+            this.pointInTimeId = response.pointInTimeId();
+        }
+        final SearchHit[] hits = response.getHits().getHits();
+        this.lastPage = hits.length < this.pageSize;
+        if (hits.length > 0) {
+            this.source.searchAfter(hits[hits.length - 1].getSortValues());
+        }
+        this.page = Arrays.asList(hits).iterator();
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical requests share one in-flight request (single-flight). Enable it via
+ * DaoConfig.coalesceRequests(). Only the raw response is shared, every caller maps its own model instances.
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Sends the request unless an identical one is in flight already.
+     *
+     * @param key must contain everything which makes the request unique, incl. index and RequestOptions
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> execute(final Object key, final Supplier<CompletableFuture<R>> request) {
+        final CompletableFuture<R> shared = new CompletableFuture<>();
+        final CompletableFuture<?> existing = this.inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            this.coalescedCount.increment();
+            return ((CompletableFuture<R>) existing).thenApply(response -> response);
+        }
+
+        final CompletableFuture<R> sent;
+        try {
+            sent = request.get();
+        } catch (final RuntimeException e) {
+            this.inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+            return shared;
+        }
+        sent.whenComplete((response, throwable) -> {
+            this.inFlight.remove(key, shared);
+            if (throwable != null) {
+                shared.completeExceptionally(throwable);
+            } else {
+                shared.complete(response);
+            }
+        });
+        return shared.thenApply(response -> response);
+    }
+
+    /**
+     * @return Number of distinct requests which are currently in flight
+     */
+    public int getInFlightCount() {
+        return this.inFlight.size();
+    }
+
+    /**
+     * @return Number of requests which were served by another in-flight request instead of being sent
+     */
+    public long getCoalescedCount() {
+        return this.coalescedCount.sum();
+    }
+
+}
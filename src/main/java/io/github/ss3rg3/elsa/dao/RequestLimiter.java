@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.rest.RestStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Caps the number of in-flight requests of a DAO. Register it via DaoConfig.requestLimiter(). Pass the same instance
+ * to several DaoConfigs to share the limit, e.g. for all DAOs of an index.<br>
+ * Rejected requests fail with status 429 (TOO_MANY_REQUESTS), just like rejections of the cluster.
+ */
+public class RequestLimiter {
+
+    public enum Mode {
+        /**
+         * Caller thread of sync requests waits until a permit is free. Async requests are queued, they never block
+         * the caller, see executeAsync(). Never rejects, waiting is unbounded and maxQueueSize is ignored.
+         */
+        BLOCK,
+        /**
+         * Request is rejected immediately if no permit is free.
+         */
+        FAIL_FAST,
+        /**
+         * Async requests are queued and sent as soon as a permit is free, sync requests wait. Rejected if
+         * maxQueueSize requests are already waiting, see DEFAULT_MAX_QUEUE_SIZE.
+         */
+        QUEUE
+    }
+
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 1000;
+
+    private final int maxInFlight;
+    private final Mode mode;
+    private final int maxQueueSize;
+    private final Semaphore permits;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    public RequestLimiter(final int maxInFlight, final Mode mode) {
+        this(maxInFlight, mode, DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    /**
+     * @param maxQueueSize only used in QUEUE mode
+     */
+    public RequestLimiter(final int maxInFlight, final Mode mode, final int maxQueueSize) {
+        Objects.requireNonNull(mode, "mode must not be NULL.");
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be greater than 0, got: " + maxInFlight);
+        }
+        if (maxQueueSize < 0) {
+            throw new IllegalArgumentException("maxQueueSize must not be negative, got: " + maxQueueSize);
+        }
+        this.maxInFlight = maxInFlight;
+        this.mode = mode;
+        this.maxQueueSize = maxQueueSize;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // EXECUTE
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Executes a blocking request once a permit is available.
+     *
+     * @throws InterruptedIOException         if interrupted while waiting for a permit
+     * @throws ElasticsearchStatusException if the request was rejected
+     */
+    public <R> R execute(final CheckedSupplier<R, IOException> request) throws IOException {
+        this.acquire();
+        try {
+            return request.get();
+        } finally {
+            this.release();
+        }
+    }
+
+    /**
+     * Executes an async request once a permit is available. The permit is released when the listener is called.
+     * Rejections are passed to the listener.<br>
+     * Never blocks the caller, also not in BLOCK mode. Async requests are often sent from listeners of other
+     * requests, i.e. from the I/O threads of the client which release the permits. Waiting there could deadlock.
+     */
+    public <R> void executeAsync(final Consumer<ActionListener<R>> request, final ActionListener<R> listener) {
+        if (this.mode == Mode.FAIL_FAST) {
+            if (this.permits.tryAcquire()) {
+                this.send(request, listener);
+            } else {
+                listener.onFailure(this.rejection());
+            }
+            return;
+        }
+
+        if (this.permits.tryAcquire()) {
+            this.send(request, listener);
+        } else if (this.enqueue(() -> this.send(request, listener))) {
+            this.drain();
+        } else {
+            listener.onFailure(this.rejection());
+        }
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // METRICS
+    // ------------------------------------------------------------------------------------------ //
+
+    public int getMaxInFlight() {
+        return this.maxInFlight;
+    }
+
+    public int getAvailablePermits() {
+        return this.permits.availablePermits();
+    }
+
+    public int getInFlight() {
+        return this.maxInFlight - this.permits.availablePermits();
+    }
+
+    /**
+     * @return Number of requests which are waiting for a permit
+     */
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // PRIVATE METHODS
+    // ------------------------------------------------------------------------------------------ //
+
+    private void acquire() throws IOException {
+        if (this.mode == Mode.FAIL_FAST) {
+            if (!this.permits.tryAcquire()) {
+                throw this.rejection();
+            }
+            return;
+        }
+
+        if (this.permits.tryAcquire()) {
+            return;
+        }
+        if (this.queueDepth.incrementAndGet() > this.maxQueueSize && this.mode == Mode.QUEUE) {
+            this.queueDepth.decrementAndGet();
+            throw this.rejection();
+        }
+        try {
+            this.permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free request permit.");
+        } finally {
+            this.queueDepth.decrementAndGet();
+        }
+    }
+
+    private void release() {
+        this.permits.release();
+        this.drain();
+    }
+
+    private boolean enqueue(final Runnable runnable) {
+        if (this.queueDepth.incrementAndGet() > this.maxQueueSize && this.mode == Mode.QUEUE) {
+            this.queueDepth.decrementAndGet();
+            return false;
+        }
+        this.queue.add(runnable);
+        return true;
+    }
+
+    /**
+     * Hands free permits to queued requests. Called after enqueuing as well, in case a permit was released in
+     * the meantime.
+     */
+    private void drain() {
+        while (!this.queue.isEmpty() && this.permits.tryAcquire()) {
+            final Runnable runnable = this.queue.poll();
+            if (runnable == null) {
+                this.permits.release();
+                return;
+            }
+            this.queueDepth.decrementAndGet();
+            runnable.run();
+        }
+    }
+
+    private <R> void send(final Consumer<ActionListener<R>> request, final ActionListener<R> listener) {
+        final AtomicBoolean released = new AtomicBoolean(false);
+        final ActionListener<R> releasingListener = new ActionListener<R>() {
+            @Override
+            public void onResponse(final R response) {
+                if (released.compareAndSet(false, true)) {
+                    RequestLimiter.this.release();
+                }
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                if (released.compareAndSet(false, true)) {
+                    RequestLimiter.this.release();
+                }
+                listener.onFailure(e);
+            }
+        };
+
+        try {
+            request.accept(releasingListener);
+        } catch (final RuntimeException e) {
+            releasingListener.onFailure(e);
+        }
+    }
+
+    private ElasticsearchStatusException rejection() {
+        return new ElasticsearchStatusException("Request rejected by RequestLimiter. In flight: " + this.getInFlight() +
+                ", queued: " + this.getQueueDepth() + ", mode: " + this.mode, RestStatus.TOO_MANY_REQUESTS);
+    }
+
+}
@@ -17,19 +17,55 @@
 package io.github.ss3rg3.elsa.dao;
 
 import io.github.ss3rg3.elsa.ElsaClient;
+import io.github.ss3rg3.elsa.endpoints.Endpoint;
 import io.github.ss3rg3.elsa.exceptions.ElsaElasticsearchException;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
 import io.github.ss3rg3.elsa.exceptions.ElsaIOException;
+import io.github.ss3rg3.elsa.helpers.Futures;
+import io.github.ss3rg3.elsa.helpers.QueryTemplate;
 import io.github.ss3rg3.elsa.model.ElsaModel;
+import io.github.ss3rg3.elsa.responses.ResponseFactory;
+import io.github.ss3rg3.elsa.statics.Method;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NByteArrayEntity;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ElasticsearchStatusException;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.asyncsearch.DeleteAsyncSearchRequest;
+import org.elasticsearch.client.asyncsearch.GetAsyncSearchRequest;
+import org.elasticsearch.client.asyncsearch.SubmitAsyncSearchRequest;
+import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.client.core.CountResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SearchDAO<T extends ElsaModel> extends ElsaDAO<T> {
 
@@ -38,8 +74,27 @@ public class SearchDAO<T extends ElsaModel> extends ElsaDAO<T> {
     }
 
     public SearchResponse search(final SearchRequest searchRequest, final RequestOptions options) throws ElsaException {
+        final SearchResultCache cache = this.getSearchResultCache(searchRequest, options);
+        if (cache == null) {
+            return this.executeSearch(searchRequest, options);
+        }
+        final String key = SearchResultCache.key(searchRequest);
+        final long generation = this.getElsa().getIndexGenerations().sum(searchRequest.indices());
+        final SearchResponse cached = cache.get(key, generation);
+        if (cached != null) {
+            return cached;
+        }
+        final SearchResponse response = this.executeSearch(searchRequest, options);
+        cache.put(key, generation, response);
+        return response;
+    }
+
+    private SearchResponse executeSearch(final SearchRequest searchRequest, final RequestOptions options) throws ElsaException {
+        if (this.isCoalesced(searchRequest)) {
+            return Futures.await(this.coalesceSearch(searchRequest, options));
+        }
         try {
-            return this.getElsa().client.search(searchRequest, options);
+            return this.limit(() -> this.getElsa().client.search(searchRequest, options));
         } catch (final IOException e) {
             throw new ElsaIOException(e);
         } catch (final ElasticsearchException e) {
@@ -55,7 +110,139 @@ public class SearchDAO<T extends ElsaModel> extends ElsaDAO<T> {
      * Executes a SearchRequest asynchronously. Response is send to Listener.
      */
     public void searchAsync(final SearchRequest searchRequest, final RequestOptions options, final ActionListener<SearchResponse> listener) {
-        this.getElsa().client.searchAsync(searchRequest, options, listener);
+        this.limitAsync(releasing -> this.getElsa().client.searchAsync(searchRequest, options, releasing), this.dispatch(listener));
+    }
+
+    /**
+     * Executes a SearchRequest asynchronously and maps the hits to your io.github.ss3rg3.elsa.model inclusive the _id field.
+     * Fails with an ElsaException.
+     *
+     * @return Empty list if no results found
+     */
+    public CompletableFuture<List<T>> searchFuture(final SearchRequest searchRequest, final RequestOptions options) {
+        return Futures.mapping(this.searchResponseFuture(searchRequest, options), this.getSearchResponseMapper()::mapHitsToList);
+    }
+
+    public CompletableFuture<List<T>> searchFuture(final SearchRequest searchRequest) {
+        return this.searchFuture(searchRequest, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a SearchRequest asynchronously and maps the first hit to your io.github.ss3rg3.elsa.model inclusive the _id field.
+     * Completes with NULL if there are no results. Fails with an ElsaException.
+     */
+    public CompletableFuture<T> searchFirstHitFuture(final SearchRequest searchRequest, final RequestOptions options) {
+        return Futures.mapping(this.searchResponseFuture(searchRequest, options), this.getSearchResponseMapper()::mapFirstHit);
+    }
+
+    public CompletableFuture<T> searchFirstHitFuture(final SearchRequest searchRequest) {
+        return this.searchFirstHitFuture(searchRequest, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Executes a SearchRequest asynchronously. Use this if you need the meta data of the SearchResponse.
+     * Fails with an ElsaException.
+     */
+    public CompletableFuture<SearchResponse> searchResponseFuture(final SearchRequest searchRequest, final RequestOptions options) {
+        final SearchResultCache cache = this.getSearchResultCache(searchRequest, options);
+        if (cache == null) {
+            return this.executeSearchFuture(searchRequest, options);
+        }
+        final String key = SearchResultCache.key(searchRequest);
+        final long generation = this.getElsa().getIndexGenerations().sum(searchRequest.indices());
+        final SearchResponse cached = cache.get(key, generation);
+        if (cached != null) {
+            return this.dispatch(CompletableFuture.completedFuture(cached));
+        }
+        return this.executeSearchFuture(searchRequest, options).thenApply(response -> {
+            cache.put(key, generation, response);
+            return response;
+        });
+    }
+
+    private CompletableFuture<SearchResponse> executeSearchFuture(final SearchRequest searchRequest, final RequestOptions options) {
+        if (this.isCoalesced(searchRequest)) {
+            return this.dispatch(this.coalesceSearch(searchRequest, options));
+        }
+        final CompletableFuture<SearchResponse> future = new CompletableFuture<>();
+        this.limitAsync(releasing -> this.getElsa().client.searchAsync(searchRequest, options, releasing), this.completing(future));
+        return future;
+    }
+
+    public CompletableFuture<SearchResponse> searchResponseFuture(final SearchRequest searchRequest) {
+        return this.searchResponseFuture(searchRequest, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Searches only the shards of the given routing values instead of all shards, see RoutingAware. The routing is
+     * set on a copy of the SearchRequest. Note that the query must still filter by tenant etc., because other
+     * routing values can be on the same shard.
+     */
+    public SearchResponse searchRouted(final SearchRequest searchRequest,
+                                       final RequestOptions options,
+                                       final String... routing) throws ElsaException {
+        return this.search(this.withRouting(searchRequest, routing), options);
+    }
+
+    public SearchResponse searchRouted(final SearchRequest searchRequest, final String... routing) throws ElsaException {
+        return this.searchRouted(searchRequest, RequestOptions.DEFAULT, routing);
+    }
+
+    /**
+     * Routed variant of searchAndMapToList(), see searchRouted().
+     *
+     * @return Empty list if no results found
+     */
+    public List<T> searchRoutedAndMapToList(final SearchRequest searchRequest, final String... routing) throws ElsaException {
+        return this.getSearchResponseMapper().mapHitsToList(this.searchRouted(searchRequest, RequestOptions.DEFAULT, routing));
+    }
+
+    /**
+     * Copies the request, so the routing doesn't stick to the SearchRequest of the caller.
+     */
+    private SearchRequest withRouting(final SearchRequest searchRequest, final String... routing) {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        if (routing == null || routing.length == 0) {
+            throw new IllegalArgumentException("routing must not be empty.");
+        }
+        return new SearchRequest(searchRequest).routing(routing);
+    }
+
+    /**
+     * Counts the matching documents via _count instead of a search.
+     */
+    public long count(final QueryBuilder query) throws ElsaException {
+        return this.count(query, RequestOptions.DEFAULT);
+    }
+
+    public long count(final QueryBuilder query, final RequestOptions options) throws ElsaException {
+        final CountRequest request = this.buildCountRequest(query);
+        try {
+            return this.limit(() -> this.getElsa().client.count(request, options)).getCount();
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    /**
+     * This counts the matching documents asynchronously. Fails with an ElsaException.
+     */
+    public CompletableFuture<Long> countFuture(final QueryBuilder query) {
+        return this.countFuture(query, RequestOptions.DEFAULT);
+    }
+
+    public CompletableFuture<Long> countFuture(final QueryBuilder query, final RequestOptions options) {
+        final CountRequest request = this.buildCountRequest(query);
+        final CompletableFuture<CountResponse> future = new CompletableFuture<>();
+        this.limitAsync(releasing -> this.getElsa().client.countAsync(request, options, releasing), this.completing(future));
+        return future.thenApply(CountResponse::getCount);
+    }
+
+    private CountRequest buildCountRequest(final QueryBuilder query) {
+        Objects.requireNonNull(query, "query must not be NULL.");
+        return new CountRequest(this.getIndexConfig().getIndexName()).query(query);
     }
 
     /**
@@ -99,16 +286,483 @@ public class SearchDAO<T extends ElsaModel> extends ElsaDAO<T> {
 
         final SearchResponse response = this.search(searchRequest, options);
 
-        return Stream.of(response.getHits().getHits())
-                .map(hit -> {
-                    final T model = this.getJsonMapper().fromJson(hit.getSourceAsString());
-                    model.setId(hit.getId());
-                    return model;
-                });
+        return this.getSearchResponseMapper().mapHitsToStream(response);
     }
 
     public Stream<T> searchAndMapToStream(final SearchRequest searchRequest) throws ElsaException {
         return this.searchAndMapToStream(searchRequest, RequestOptions.DEFAULT);
     }
 
+    /**
+     * Makes a search and maps the hits onto a lightweight projection class instead of the full model. The projection
+     * doesn't need to implement ElsaModel, if it does then the _id field is set.<br>
+     * The fetchSourceContext is set on the SearchRequest, so only the included fields are loaded and transferred, e.g.
+     * new FetchSourceContext(true, new String[]{"title", "date"}, null)
+     *
+     * @return Empty list if no results found
+     */
+    public <P> List<P> searchAndMapToList(final SearchRequest searchRequest,
+                                          final Class<P> projectionClass,
+                                          final FetchSourceContext fetchSourceContext,
+                                          final RequestOptions options) throws ElsaException {
+        final SearchResponse response = this.search(this.withSourceFilter(searchRequest, fetchSourceContext), options);
+        return this.getSearchResponseMapper().mapHitsToList(response, projectionClass);
+    }
+
+    public <P> List<P> searchAndMapToList(final SearchRequest searchRequest,
+                                          final Class<P> projectionClass,
+                                          final FetchSourceContext fetchSourceContext) throws ElsaException {
+        return this.searchAndMapToList(searchRequest, projectionClass, fetchSourceContext, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Async variant of searchAndMapToList() with a projection class. Fails with an ElsaException.
+     */
+    public <P> CompletableFuture<List<P>> searchFuture(final SearchRequest searchRequest,
+                                                       final Class<P> projectionClass,
+                                                       final FetchSourceContext fetchSourceContext,
+                                                       final RequestOptions options) {
+        return Futures.mapping(this.searchResponseFuture(this.withSourceFilter(searchRequest, fetchSourceContext), options),
+                response -> this.getSearchResponseMapper().mapHitsToList(response, projectionClass));
+    }
+
+    public <P> CompletableFuture<List<P>> searchFuture(final SearchRequest searchRequest,
+                                                       final Class<P> projectionClass,
+                                                       final FetchSourceContext fetchSourceContext) {
+        return this.searchFuture(searchRequest, projectionClass, fetchSourceContext, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Copies the request and its source, so the filter doesn't stick to the SearchRequest of the caller.
+     */
+    private SearchRequest withSourceFilter(final SearchRequest searchRequest, final FetchSourceContext fetchSourceContext) {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        Objects.requireNonNull(fetchSourceContext, "fetchSourceContext must not be NULL.");
+        final SearchSourceBuilder source = searchRequest.source() == null ? new SearchSourceBuilder() : searchRequest.source().shallowCopy();
+        return new SearchRequest(searchRequest).source(source.fetchSource(fetchSourceContext));
+    }
+
+    /**
+     * Submits the search as async search (_async_search), so long-running searches don't block a connection and a
+     * thread until they are done. If the search completes within waitForCompletion, the result is returned directly,
+     * otherwise poll it via getAsyncSearch() or awaitAsyncSearch() with the ID. Without explicit indices the index of
+     * this DAO is searched. All settings of the SearchRequest which async search supports are copied, requests with
+     * scroll are rejected.
+     *
+     * @param waitForCompletion how long the submit request waits for the result, NULL uses the default of
+     *                          Elasticsearch (1s)
+     * @param keepAlive         how long Elasticsearch keeps the search and its results, NULL uses the default of
+     *                          Elasticsearch (5d)
+     */
+    public AsyncSearchResult<T> submitAsyncSearch(final SearchRequest searchRequest,
+                                                  final TimeValue waitForCompletion,
+                                                  final TimeValue keepAlive,
+                                                  final RequestOptions options) throws ElsaException {
+        final SubmitAsyncSearchRequest request = this.buildSubmitAsyncSearchRequest(searchRequest, waitForCompletion, keepAlive);
+        try {
+            return new AsyncSearchResult<>(this.limit(() -> this.getElsa().client.asyncSearch().submit(request, options)),
+                    this.getSearchResponseMapper());
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    public AsyncSearchResult<T> submitAsyncSearch(final SearchRequest searchRequest, final TimeValue keepAlive) throws ElsaException {
+        return this.submitAsyncSearch(searchRequest, null, keepAlive, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Polls the async search. Contains the partial results while it is running. Throws with status 404 if the search
+     * was deleted or has expired after its keep-alive.
+     *
+     * @param waitForCompletion how long the request waits for the search to complete, NULL returns immediately
+     * @param keepAlive         extends the keep-alive of the search, NULL keeps the current one
+     */
+    public AsyncSearchResult<T> getAsyncSearch(final String id,
+                                               final TimeValue waitForCompletion,
+                                               final TimeValue keepAlive,
+                                               final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(id, "id must not be NULL.");
+        final GetAsyncSearchRequest request = new GetAsyncSearchRequest(id);
+        if (waitForCompletion != null) {
+            request.setWaitForCompletion(waitForCompletion);
+        }
+        if (keepAlive != null) {
+            request.setKeepAlive(keepAlive);
+        }
+        try {
+            return new AsyncSearchResult<>(this.limit(() -> this.getElsa().client.asyncSearch().get(request, options)),
+                    this.getSearchResponseMapper());
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            if (e.status() == RestStatus.NOT_FOUND) {
+                throw new ElsaElasticsearchException(new ElasticsearchStatusException("Async search '" + id + "' not found, " +
+                        "it was deleted or has expired after its keep-alive.", RestStatus.NOT_FOUND, e));
+            }
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    public AsyncSearchResult<T> getAsyncSearch(final String id) throws ElsaException {
+        return this.getAsyncSearch(id, null, null, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Polls the async search until it's done and returns the final result. Every poll waits up to waitPerPoll on the
+     * server, so it returns as soon as the search is done. waitPerPoll must be lower than the socket timeout of the
+     * client. The progressListener gets every intermediate result, e.g. to show partial hits. The search keeps
+     * running if maxWait expires, delete it via deleteAsyncSearch() if the result isn't needed anymore.
+     *
+     * @param maxWait throws an ElsaIOException if the search isn't done within this time
+     */
+    public AsyncSearchResult<T> awaitAsyncSearch(final String id,
+                                                 final TimeValue waitPerPoll,
+                                                 final TimeValue maxWait,
+                                                 final Consumer<AsyncSearchResult<T>> progressListener) throws ElsaException {
+        Objects.requireNonNull(waitPerPoll, "waitPerPoll must not be NULL.");
+        Objects.requireNonNull(maxWait, "maxWait must not be NULL.");
+        Objects.requireNonNull(progressListener, "progressListener must not be NULL.");
+        final long deadline = System.currentTimeMillis() + maxWait.millis();
+        while (true) {
+            final long remainingMillis = deadline - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                throw new ElsaIOException(new IOException("Async search '" + id + "' wasn't done within " + maxWait + "."));
+            }
+            final TimeValue wait = TimeValue.timeValueMillis(Math.min(waitPerPoll.millis(), remainingMillis));
+            final AsyncSearchResult<T> result = this.getAsyncSearch(id, wait, null, RequestOptions.DEFAULT);
+            if (!result.isRunning()) {
+                if (result.getFailure() != null && result.getSearchResponse() == null) {
+                    throw new ElsaElasticsearchException(result.getFailure());
+                }
+                return result;
+            }
+            progressListener.accept(result);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ElsaIOException(new InterruptedIOException("Interrupted while waiting for async search '" + id + "'."));
+            }
+        }
+    }
+
+    /**
+     * Cancels the async search if it's still running and deletes its results.
+     */
+    public boolean deleteAsyncSearch(final String id, final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(id, "id must not be NULL.");
+        final DeleteAsyncSearchRequest request = new DeleteAsyncSearchRequest(id);
+        try {
+            return this.limit(() -> this.getElsa().client.asyncSearch().delete(request, options)).isAcknowledged();
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    public boolean deleteAsyncSearch(final String id) throws ElsaException {
+        return this.deleteAsyncSearch(id, RequestOptions.DEFAULT);
+    }
+
+    SubmitAsyncSearchRequest buildSubmitAsyncSearchRequest(final SearchRequest searchRequest,
+                                                           final TimeValue waitForCompletion,
+                                                           final TimeValue keepAlive) {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        if (searchRequest.scroll() != null) {
+            throw new IllegalArgumentException("Async search doesn't support scroll, use the Scroller instead.");
+        }
+        final String[] indices = searchRequest.indices() == null || searchRequest.indices().length == 0
+                ? new String[]{this.getIndexConfig().getIndexName()}
+                : searchRequest.indices();
+        final SearchSourceBuilder source = searchRequest.source() == null ? new SearchSourceBuilder() : searchRequest.source();
+        final SubmitAsyncSearchRequest request = new SubmitAsyncSearchRequest(source, indices);
+        if (waitForCompletion != null) {
+            request.setWaitForCompletionTimeout(waitForCompletion);
+        }
+        if (keepAlive != null) {
+            request.setKeepAlive(keepAlive);
+        }
+        if (searchRequest.routing() != null) {
+            request.setRouting(searchRequest.routing());
+        }
+        if (searchRequest.preference() != null) {
+            request.setPreference(searchRequest.preference());
+        }
+        request.setIndicesOptions(searchRequest.indicesOptions());
+        request.setSearchType(searchRequest.searchType());
+        request.setRequestCache(searchRequest.requestCache());
+        if (searchRequest.allowPartialSearchResults() != null) {
+            request.setAllowPartialSearchResults(searchRequest.allowPartialSearchResults());
+        }
+        // Async search reduces more often by default, so partial results are available early
+        if (searchRequest.getBatchedReduceSize() != SearchRequest.DEFAULT_BATCHED_REDUCE_SIZE) {
+            request.setBatchedReduceSize(searchRequest.getBatchedReduceSize());
+        }
+        request.setMaxConcurrentShardRequests(searchRequest.getMaxConcurrentShardRequests());
+        return request;
+    }
+
+    /**
+     * Streams all hits of the SearchRequest lazily via point-in-time and search_after, see PointInTimeIterator.
+     * Use it in try-with-resources, closing the stream closes the point-in-time. The keep-alive must cover the time
+     * to process one page.
+     */
+    public Stream<T> streamAll(final SearchRequest searchRequest,
+                               final TimeValue keepAlive,
+                               final RequestOptions options) throws ElsaException {
+        final PointInTimeIterator<T> iterator = this.iterateAll(searchRequest, keepAlive, options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    public Stream<T> streamAll(final SearchRequest searchRequest) throws ElsaException {
+        return this.streamAll(searchRequest, TimeValue.timeValueMinutes(1), RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Iterator variant of streamAll(), use it in try-with-resources.
+     */
+    public PointInTimeIterator<T> iterateAll(final SearchRequest searchRequest,
+                                             final TimeValue keepAlive,
+                                             final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        Objects.requireNonNull(keepAlive, "keepAlive must not be NULL.");
+        return new PointInTimeIterator<>(this, searchRequest, keepAlive, options);
+    }
+
+    /**
+     * Streams all buckets of the composite aggregation on the index of this DAO. The pages are requested lazily via
+     * after_key until the aggregation is exhausted, the page size is the size of the composite aggregation. Every
+     * bucket is mapped with the Gson of this DAO (see getGson()) directly from the response onto the bucketClass,
+     * e.g. with fields "key", "doc_count" and the names of the sub-aggregations, see CompositeBucketIterator.<br>
+     * The composite builder is modified (after_key), so don't share it between concurrent streams. Use it in
+     * try-with-resources if the stream isn't consumed completely, closing the stream cancels a pending prefetch.
+     *
+     * @param prefetch requests the next page while the current one is consumed
+     */
+    public <B> Stream<B> streamCompositeBuckets(final QueryBuilder query,
+                                                final CompositeAggregationBuilder composite,
+                                                final Class<B> bucketClass,
+                                                final boolean prefetch,
+                                                final RequestOptions options) {
+        Objects.requireNonNull(query, "query must not be NULL.");
+        Objects.requireNonNull(composite, "composite must not be NULL.");
+        Objects.requireNonNull(bucketClass, "bucketClass must not be NULL.");
+        final CompositeBucketIterator<B> iterator = new CompositeBucketIterator<>(this, query, composite, bucketClass,
+                this.getGson(), prefetch, options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Streams the buckets as CompositeBucket records with key, doc_count and single-value metrics, prefetching the
+     * next page.
+     */
+    public Stream<CompositeBucket> streamCompositeBuckets(final QueryBuilder query, final CompositeAggregationBuilder composite) {
+        return this.streamCompositeBuckets(query, composite, CompositeBucket.class, true, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Renders the QueryTemplate with the parameters and sends it directly as body of a search on the index of this
+     * DAO, without creating a SearchRequest. See QueryTemplate. DaoConfig.searchResultCache, coalesceRequests and
+     * requestLimiter apply the same way as for search(SearchRequest), keyed by the rendered body. A response which
+     * can't be parsed fails with an ElsaIOException.
+     */
+    public SearchResponse search(final QueryTemplate queryTemplate,
+                                 final Map<String, ?> parameters,
+                                 final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(queryTemplate, "queryTemplate must not be NULL.");
+        final byte[] body = queryTemplate.render(parameters);
+        final SearchResultCache cache = options == RequestOptions.DEFAULT ? this.getDaoConfig().getSearchResultCache() : null;
+        if (cache == null) {
+            return this.executeTemplateSearch(body, options);
+        }
+        final String indexName = this.getIndexConfig().getIndexName();
+        final String key = SearchResultCache.key(indexName, body);
+        final long generation = this.getElsa().getIndexGenerations().get(indexName);
+        final SearchResponse cached = cache.get(key, generation);
+        if (cached != null) {
+            return cached;
+        }
+        final SearchResponse response = this.executeTemplateSearch(body, options);
+        cache.put(key, generation, response);
+        return response;
+    }
+
+    private SearchResponse executeTemplateSearch(final byte[] body, final RequestOptions options) throws ElsaException {
+        if (this.getRequestCoalescer() != null) {
+            return Futures.await(this.coalesceTemplateSearch(body, options));
+        }
+        try {
+            final Response response = this.limit(() -> this.getElsa().client.getLowLevelClient().performRequest(this.templateSearchRequest(body, options)));
+            return ResponseFactory.createSearchResponse(response);
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    /**
+     * The key is created from the rendered body, the index is the one of this DAO.
+     */
+    private CompletableFuture<SearchResponse> coalesceTemplateSearch(final byte[] body, final RequestOptions options) {
+        final List<Object> key = Arrays.asList("template", new BytesArray(body), options);
+        return this.getRequestCoalescer().execute(key, () -> {
+            final CompletableFuture<Response> future = new CompletableFuture<>();
+            this.limitAsync(releasing -> this.getElsa().client.getLowLevelClient().performRequestAsync(
+                    this.templateSearchRequest(body, options), new ResponseListener() {
+                        @Override
+                        public void onSuccess(final Response response) {
+                            releasing.onResponse(response);
+                        }
+
+                        @Override
+                        public void onFailure(final Exception e) {
+                            releasing.onFailure(e);
+                        }
+                    }), Futures.completing(future));
+            return future.thenApply(response -> {
+                try {
+                    return ResponseFactory.createSearchResponse(response);
+                } catch (final IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        });
+    }
+
+    private Request templateSearchRequest(final byte[] body, final RequestOptions options) {
+        final Request request = new Request(Method.POST, Endpoint.SEARCH.search(this.getIndexConfig().getIndexName()));
+        request.setOptions(options);
+        request.setEntity(new NByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        return request;
+    }
+
+    public SearchResponse search(final QueryTemplate queryTemplate, final Map<String, ?> parameters) throws ElsaException {
+        return this.search(queryTemplate, parameters, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * QueryTemplate variant of searchAndMapToList().
+     *
+     * @return Empty list if no results found
+     */
+    public List<T> searchAndMapToList(final QueryTemplate queryTemplate, final Map<String, ?> parameters) throws ElsaException {
+        return this.getSearchResponseMapper().mapHitsToList(this.search(queryTemplate, parameters, RequestOptions.DEFAULT));
+    }
+
+    /**
+     * Sends all SearchRequests as one _msearch request instead of one round trip per search. The hits are mapped to
+     * your io.github.ss3rg3.elsa.model inclusive the _id field. A failed search only fails its own item.
+     *
+     * @param maxConcurrentSearches how many of the searches Elasticsearch executes in parallel, 0 uses the default
+     *                              of Elasticsearch
+     * @return Items in the same order as the SearchRequests
+     */
+    public MultiSearchResult<T> multiSearch(final List<SearchRequest> searchRequests,
+                                            final int maxConcurrentSearches,
+                                            final RequestOptions options) throws ElsaException {
+        final MultiSearchRequest request = this.buildMultiSearchRequest(searchRequests, maxConcurrentSearches);
+        try {
+            return this.toMultiSearchResult(searchRequests, this.limit(() -> this.getElsa().client.msearch(request, options)));
+        } catch (final IOException e) {
+            throw new ElsaIOException(e);
+        } catch (final ElasticsearchException e) {
+            throw new ElsaElasticsearchException(e);
+        }
+    }
+
+    public MultiSearchResult<T> multiSearch(final List<SearchRequest> searchRequests) throws ElsaException {
+        return this.multiSearch(searchRequests, 0, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Async variant of multiSearch(). Fails with an ElsaException only if the whole _msearch request failed.
+     */
+    public CompletableFuture<MultiSearchResult<T>> multiSearchFuture(final List<SearchRequest> searchRequests,
+                                                                     final int maxConcurrentSearches,
+                                                                     final RequestOptions options) {
+        final MultiSearchRequest request = this.buildMultiSearchRequest(searchRequests, maxConcurrentSearches);
+        final CompletableFuture<MultiSearchResponse> future = new CompletableFuture<>();
+        this.limitAsync(releasing -> this.getElsa().client.msearchAsync(request, options, releasing), this.completing(future));
+        return future.thenApply(response -> this.toMultiSearchResult(searchRequests, response));
+    }
+
+    public CompletableFuture<MultiSearchResult<T>> multiSearchFuture(final List<SearchRequest> searchRequests) {
+        return this.multiSearchFuture(searchRequests, 0, RequestOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a collector which gathers searches and sends them as one _msearch request, see MultiSearchCollector.
+     */
+    public MultiSearchCollector<T> multiSearchCollector(final int maxConcurrentSearches, final RequestOptions options) {
+        return new MultiSearchCollector<>(this, maxConcurrentSearches, options);
+    }
+
+    public MultiSearchCollector<T> multiSearchCollector() {
+        return this.multiSearchCollector(0, RequestOptions.DEFAULT);
+    }
+
+    private MultiSearchRequest buildMultiSearchRequest(final List<SearchRequest> searchRequests, final int maxConcurrentSearches) {
+        Objects.requireNonNull(searchRequests, "searchRequests must not be NULL.");
+        if (searchRequests.isEmpty()) {
+            throw new IllegalArgumentException("searchRequests must not be empty.");
+        }
+        if (maxConcurrentSearches < 0) {
+            throw new IllegalArgumentException("maxConcurrentSearches must not be negative, got: " + maxConcurrentSearches);
+        }
+        final MultiSearchRequest request = new MultiSearchRequest();
+        searchRequests.forEach(request::add);
+        if (maxConcurrentSearches > 0) {
+            request.maxConcurrentSearchRequests(maxConcurrentSearches);
+        }
+        return request;
+    }
+
+    private MultiSearchResult<T> toMultiSearchResult(final List<SearchRequest> searchRequests, final MultiSearchResponse response) {
+        final MultiSearchResponse.Item[] responses = response.getResponses();
+        final List<MultiSearchResult.Item<T>> items = new ArrayList<>(responses.length);
+        for (int i = 0; i < responses.length; i++) {
+            if (responses[i].isFailure()) {
+                items.add(MultiSearchResult.Item.failure(searchRequests.get(i), Futures.toElsaException(responses[i].getFailure())));
+            } else {
+                final SearchResponse searchResponse = responses[i].getResponse();
+                items.add(MultiSearchResult.Item.success(searchRequests.get(i), searchResponse,
+                        this.getSearchResponseMapper().mapHitsToList(searchResponse)));
+            }
+        }
+        return new MultiSearchResult<>(items);
+    }
+
+    /**
+     * @return NULL if DaoConfig.searchResultCache is not set or the search can't be cached. Searches with custom
+     * RequestOptions or on other indices than the one of this DAO are not cached.
+     */
+    private SearchResultCache getSearchResultCache(final SearchRequest searchRequest, final RequestOptions options) {
+        final SearchResultCache cache = this.getDaoConfig().getSearchResultCache();
+        if (cache == null || options != RequestOptions.DEFAULT
+                || !SearchResultCache.isCacheable(searchRequest, this.getIndexConfig().getIndexName())) {
+            return null;
+        }
+        return cache;
+    }
+
+    private boolean isCoalesced(final SearchRequest searchRequest) {
+        return this.getRequestCoalescer() != null && searchRequest.scroll() == null;
+    }
+
+    /**
+     * The key is created from SearchRequest.toString(), because the request is mutable and contains the source.
+     */
+    private CompletableFuture<SearchResponse> coalesceSearch(final SearchRequest searchRequest, final RequestOptions options) {
+        final List<Object> key = Arrays.asList("search", searchRequest.toString(), options);
+        return this.getRequestCoalescer().execute(key, () -> {
+            final CompletableFuture<SearchResponse> future = new CompletableFuture<>();
+            this.limitAsync(releasing -> this.getElsa().client.searchAsync(searchRequest, options, releasing), Futures.completing(future));
+            return future;
+        });
+    }
+
 }
@@ -17,25 +17,39 @@
 package io.github.ss3rg3.elsa.dao;
 
 import io.github.ss3rg3.elsa.jsonmapper.JsonMapper;
+import io.github.ss3rg3.elsa.jsonmapper.ProjectionMapper;
 import io.github.ss3rg3.elsa.model.ElsaModel;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.search.SearchHit;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 public class SearchResponseMapper<T extends ElsaModel> {
 
     private final JsonMapper<T> jsonMapper;
+    private final int parallelThreshold;
+    private final Executor parallelExecutor;
+    private final int parallelChunks;
 
     public SearchResponseMapper(final ElsaDAO<T> elsaDAO) {
         this.jsonMapper = elsaDAO.getJsonMapper();
+        this.parallelThreshold = elsaDAO.getDaoConfig().getParallelHitMappingThreshold();
+        this.parallelExecutor = elsaDAO.getDaoConfig().getParallelHitMappingExecutor();
+        this.parallelChunks = getParallelism(this.parallelExecutor) + 1;
     }
 
     public T mapHit(final SearchHit searchHit) {
-        final T model = jsonMapper.fromJson(searchHit.getSourceAsString());
+        final T model = jsonMapper.fromJson(searchHit.getSourceRef());
         model.setId(searchHit.getId());
         return model;
     }
@@ -43,31 +57,40 @@ public class SearchResponseMapper<T extends ElsaModel> {
     @Nullable
     public T mapFirstHit(final SearchResponse searchResponse) {
         if(searchResponse.getHits().getHits().length != 0) {
-            final T model = jsonMapper.fromJson(searchResponse.getHits().getHits()[0].getSourceAsString());
-            model.setId(searchResponse.getHits().getHits()[0].getId());
-            return model;
+            return this.mapHit(searchResponse.getHits().getHits()[0]);
         } else {
             return null;
         }
     }
 
+    /**
+     * Maps in parallel if DaoConfig.parallelHitMapping is set and the page is big enough.
+     */
     public List<T> mapHitsToList(final SearchResponse searchResponse) {
-        final List<T> list = new ArrayList<>();
-        for(final SearchHit hit : searchResponse.getHits().getHits()) {
-            final T model = jsonMapper.fromJson(hit.getSourceAsString());
-            model.setId(hit.getId());
-            list.add(model);
-        }
-        return list;
+        return this.mapAll(searchResponse.getHits().getHits(), this::mapHit);
     }
 
     public Stream<T> mapHitsToStream(final SearchResponse searchResponse) {
         return Stream.of(searchResponse.getHits().getHits())
-                .map(hit -> {
-                    final T model = jsonMapper.fromJson(hit.getSourceAsString());
-                    model.setId(hit.getId());
-                    return model;
-                });
+                .map(this::mapHit);
+    }
+
+    /**
+     * Maps the hit onto a projection class, e.g. if the SearchRequest only fetches some fields of the _source.
+     * The _id is set if the projection class implements ElsaModel.
+     *
+     * @throws UnsupportedOperationException if the JsonMapper doesn't implement ProjectionMapper
+     */
+    public <P> P mapHit(final SearchHit searchHit, final Class<P> projectionClass) {
+        final P projection = ProjectionMapper.of(this.jsonMapper).fromJson(searchHit.getSourceRef(), projectionClass);
+        if (projection instanceof ElsaModel) {
+            ((ElsaModel) projection).setId(searchHit.getId());
+        }
+        return projection;
+    }
+
+    public <P> List<P> mapHitsToList(final SearchResponse searchResponse, final Class<P> projectionClass) {
+        return this.mapAll(searchResponse.getHits().getHits(), hit -> this.mapHit(hit, projectionClass));
     }
 
     public static long getTotalHits(final SearchResponse searchResponse) {
@@ -78,7 +101,68 @@ public class SearchResponseMapper<T extends ElsaModel> {
         return searchResponse.getHits().getHits().length;
     }
 
+    private <R> List<R> mapAll(final SearchHit[] hits, final Function<SearchHit, R> mapper) {
+        if (this.parallelThreshold <= 0 || hits.length < this.parallelThreshold) {
+            final List<R> list = new ArrayList<>(hits.length);
+            for (final SearchHit hit : hits) {
+                list.add(mapper.apply(hit));
+            }
+            return list;
+        }
+        return this.mapAllInParallel(hits, mapper);
+    }
+
+    /**
+     * One chunk per thread of the executor plus one for the caller. Every chunk writes into its own range of the
+     * pre-sized list, so the hit order is kept without sorting. Joining the futures makes the writes of the other
+     * threads visible.
+     */
+    private <R> List<R> mapAllInParallel(final SearchHit[] hits, final Function<SearchHit, R> mapper) {
+        final List<R> list = new ArrayList<>(Collections.nCopies(hits.length, null));
+        final int chunks = Math.min(this.parallelChunks, hits.length);
+        final int chunkSize = (hits.length + chunks - 1) / chunks;
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(chunks);
+        for (int start = chunkSize; start < hits.length; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, hits.length);
+            futures.add(CompletableFuture.runAsync(() -> mapRange(hits, from, to, mapper, list), this.parallelExecutor));
+        }
+        mapRange(hits, 0, Math.min(chunkSize, hits.length), mapper, list);
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return list;
+    }
 
+    /**
+     * @return parallelism of ForkJoinPools and maximum pool size of ThreadPoolExecutors (at most the number of
+     * processors, e.g. for cached thread pools), otherwise the number of processors
+     */
+    private static int getParallelism(final Executor executor) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        } else if (executor instanceof ThreadPoolExecutor) {
+            return Math.min(((ThreadPoolExecutor) executor).getMaximumPoolSize(), processors);
+        }
+        return processors;
+    }
 
+    private static <R> void mapRange(final SearchHit[] hits,
+                                     final int from,
+                                     final int to,
+                                     final Function<SearchHit, R> mapper,
+                                     final List<R> list) {
+        for (int i = from; i < to; i++) {
+            list.set(i, mapper.apply(hits[i]));
+        }
+    }
 
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.elasticsearch.search.aggregations.bucket.SingleBucketAggregation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Result cache for SearchDAO.search() and all methods based on it. Register it via DaoConfig.searchResultCache().
+ * Entries are keyed by the index names and a hash of the serialized SearchRequest or of the rendered
+ * QueryTemplate. The cache is bounded by the
+ * estimated size of the responses, see estimateSizeInBytes().<br>
+ * Only searches on the concrete index of the DAO are cached. Writes via any CrudDAO or BulkProcessor of the same
+ * ElsaClient invalidate the entries of the written index, see IndexGenerations. Writes from anywhere else (other clients, other services) are only picked up after
+ * the TTL.<br>
+ * Cached SearchResponses are shared between callers, so don't modify them.
+ */
+public class SearchResultCache {
+
+    private static final int RESPONSE_OVERHEAD_IN_BYTES = 1024;
+    private static final int HIT_OVERHEAD_IN_BYTES = 256;
+    private static final int AGGREGATION_OVERHEAD_IN_BYTES = 256;
+    private static final int BUCKET_OVERHEAD_IN_BYTES = 128;
+
+    private final Cache<String, Entry> cache;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public SearchResultCache(final ByteSizeValue maximumSize, final TimeValue timeToLive) {
+        Objects.requireNonNull(maximumSize, "maximumSize must not be NULL.");
+        Objects.requireNonNull(timeToLive, "timeToLive must not be NULL.");
+        if (maximumSize.getBytes() <= 0) {
+            throw new IllegalArgumentException("maximumSize must be greater than 0, got: " + maximumSize);
+        }
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumSize.getBytes())
+                .weigher((String key, Entry entry) -> entry.sizeInBytes)
+                .expireAfterWrite(timeToLive.millis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Only searches on exactly the given concrete index are cached. Writes are tracked per concrete index, so
+     * searches on aliases, wildcards or other indices would never be invalidated.
+     */
+    public static boolean isCacheable(final SearchRequest searchRequest, final String indexName) {
+        return searchRequest.scroll() == null
+                && searchRequest.indices() != null
+                && searchRequest.indices().length == 1
+                && searchRequest.indices()[0].equals(indexName)
+                && (searchRequest.source() == null || searchRequest.source().pointInTimeBuilder() == null);
+    }
+
+    public static String key(final SearchRequest searchRequest) {
+        return String.join(",", searchRequest.indices()) + "/" +
+                Hashing.murmur3_128().hashString(searchRequest.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Key of a QueryTemplate search, which has no SearchRequest. See SearchDAO.search(QueryTemplate, Map).
+     */
+    public static String key(final String indexName, final byte[] renderedBody) {
+        return indexName + "/template/" + Hashing.murmur3_128().hashBytes(renderedBody);
+    }
+
+    /**
+     * @param generation current generation of the indices of the SearchRequest, see IndexGenerations.sum()
+     * @return NULL if not cached or if the indices were written to since the response was cached
+     */
+    public SearchResponse get(final String key, final long generation) {
+        final Entry entry = this.cache.getIfPresent(key);
+        if (entry == null || entry.generation != generation) {
+            this.missCount.increment();
+            return null;
+        }
+        this.hitCount.increment();
+        return entry.response;
+    }
+
+    /**
+     * @param generation generation of the indices from before the search was sent, so a write during the search
+     *                   makes the entry stale
+     */
+    public void put(final String key, final long generation, final SearchResponse response) {
+        final long sizeInBytes = estimateSizeInBytes(response);
+        this.cache.put(key, new Entry(response, generation, (int) Math.min(sizeInBytes, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Cheap estimate without serializing the response: the _source bytes of the hits plus a fixed overhead per
+     * hit, aggregation and bucket.
+     */
+    static long estimateSizeInBytes(final SearchResponse response) {
+        long sizeInBytes = RESPONSE_OVERHEAD_IN_BYTES;
+        if (response.getHits() != null) {
+            for (final SearchHit hit : response.getHits().getHits()) {
+                sizeInBytes += HIT_OVERHEAD_IN_BYTES;
+                if (hit.getSourceRef() != null) {
+                    sizeInBytes += hit.getSourceRef().length();
+                }
+            }
+        }
+        return sizeInBytes + estimateSizeInBytes(response.getAggregations());
+    }
+
+    private static long estimateSizeInBytes(final Aggregations aggregations) {
+        if (aggregations == null) {
+            return 0;
+        }
+        long sizeInBytes = 0;
+        for (final Aggregation aggregation : aggregations) {
+            sizeInBytes += AGGREGATION_OVERHEAD_IN_BYTES;
+            if (aggregation instanceof MultiBucketsAggregation) {
+                for (final MultiBucketsAggregation.Bucket bucket : ((MultiBucketsAggregation) aggregation).getBuckets()) {
+                    sizeInBytes += BUCKET_OVERHEAD_IN_BYTES + estimateSizeInBytes(bucket.getAggregations());
+                }
+            } else if (aggregation instanceof SingleBucketAggregation) {
+                sizeInBytes += estimateSizeInBytes(((SingleBucketAggregation) aggregation).getAggregations());
+            }
+        }
+        return sizeInBytes;
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    public long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * @return Number of searches which were answered from the cache
+     */
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * @return Number of searches which weren't cached or whose entry was stale
+     */
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * @return Number of entries removed because of size or TTL, invalidations are not counted
+     */
+    public long getEvictionCount() {
+        return this.cache.stats().evictionCount();
+    }
+
+    private static class Entry {
+        private final SearchResponse response;
+        private final long generation;
+        private final int sizeInBytes;
+
+        private Entry(final SearchResponse response, final long generation, final int sizeInBytes) {
+            this.response = response;
+            this.generation = generation;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+}
@@ -24,6 +24,54 @@ public final class Endpoint {
     public static final String REINDEX = "_reindex";
 
 
+    // ------------------------------------------------------------------------------------------ //
+    // SEARCH
+    // ------------------------------------------------------------------------------------------ //
+
+    public static final class SEARCH {
+        private SEARCH() {
+        }
+
+        public static String search(final String indexName) {
+            return indexName + "/_search";
+        }
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // BY QUERY
+    // ------------------------------------------------------------------------------------------ //
+
+    public static final class BY_QUERY {
+        private BY_QUERY() {
+        }
+
+        public static String deleteByQuery(final String indexName) {
+            return indexName + "/_delete_by_query";
+        }
+
+        public static String updateByQuery(final String indexName) {
+            return indexName + "/_update_by_query";
+        }
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // TASKS
+    // ------------------------------------------------------------------------------------------ //
+
+    public static final class TASKS {
+        private TASKS() {
+        }
+
+        private static final String ROOT = "_tasks";
+
+        public static String getTask(final String taskId) {
+            return ROOT + "/" + taskId;
+        }
+    }
+
+
     // ------------------------------------------------------------------------------------------ //
     // MAPPINGS
     // ------------------------------------------------------------------------------------------ //
@@ -0,0 +1,17 @@
+package io.github.ss3rg3.elsa.exceptions;
+
+/**
+ * Wraps an ElsaException where no checked exceptions are allowed, e.g. in Iterator.hasNext() of lazy streams.
+ */
+public class ElsaUncheckedException extends RuntimeException {
+
+    public ElsaUncheckedException(final ElsaException e) {
+        super(e);
+    }
+
+    @Override
+    public synchronized ElsaException getCause() {
+        return (ElsaException) super.getCause();
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.helpers;
+
+import io.github.ss3rg3.elsa.exceptions.ElsaElasticsearchException;
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.exceptions.ElsaIOException;
+import io.github.ss3rg3.elsa.exceptions.ElsaUncheckedException;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionListener;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Glue between Elastic's ActionListener and CompletableFuture. Futures created here are always completed
+ * exceptionally with an ElsaException, so callers get the same exception types as with the blocking methods.
+ */
+public class Futures {
+    private Futures() {
+    }
+
+    /**
+     * Creates an ActionListener which completes the given future.
+     */
+    public static <R> ActionListener<R> completing(final CompletableFuture<R> future) {
+        return new ActionListener<R>() {
+            @Override
+            public void onResponse(final R response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                future.completeExceptionally(toElsaException(e));
+            }
+        };
+    }
+
+    /**
+     * Blocks until the future is done and unwraps its failure.
+     */
+    public static <R> R await(final CompletableFuture<R> future) throws ElsaException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElsaIOException(new InterruptedIOException("Interrupted while waiting for Elasticsearch response."));
+        } catch (final ExecutionException e) {
+            throw toElsaException(e.getCause());
+        }
+    }
+
+    /**
+     * Blocks until all futures are done. Fails with the first failure in list order.
+     */
+    public static <R> void awaitAll(final List<CompletableFuture<R>> futures) throws ElsaException {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (final CompletionException e) {
+            // Handled below, so the failure is reported deterministically
+        }
+        for (final CompletableFuture<R> future : futures) {
+            await(future);
+        }
+    }
+
+    /**
+     * thenApply() which fails with an ElsaException also if the mapping itself throws, e.g. if the _source doesn't
+     * match the model.
+     */
+    public static <R, U> CompletableFuture<U> mapping(final CompletableFuture<R> future, final Function<? super R, ? extends U> mapper) {
+        return future.thenApply(response -> {
+            try {
+                return mapper.apply(response);
+            } catch (final RuntimeException e) {
+                throw new CompletionException(toElsaException(e));
+            }
+        });
+    }
+
+    public static ElsaException toElsaException(final Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException || cause instanceof ElsaUncheckedException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ElsaException) {
+            return (ElsaException) cause;
+        } else if (cause instanceof IOException) {
+            return new ElsaIOException((IOException) cause);
+        } else if (cause instanceof ElasticsearchException) {
+            return new ElsaElasticsearchException((ElasticsearchException) cause);
+        } else {
+            return new ElsaElasticsearchException(new ElasticsearchException(cause));
+        }
+    }
+
+}
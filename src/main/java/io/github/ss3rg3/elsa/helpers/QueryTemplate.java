@@ -0,0 +1,237 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.helpers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.github.ss3rg3.elsa.statics.ElsaStatics;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A search body which is serialized only once and then rendered with different parameters, for hot searches which
+ * always have the same shape. Rendering just copies the pre-serialized bytes and the JSON of the parameters into one
+ * byte array, no SearchSourceBuilder is created or serialized. Execute it via SearchDAO.search(QueryTemplate, Map).
+ * <pre>
+ * QueryTemplate template = QueryTemplate.compile(Search.src()
+ *         .size(20)
+ *         .query(QueryBuilders.termQuery("status", QueryTemplate.param("status"))));
+ * dao.search(template, Collections.singletonMap("status", "active"));
+ * </pre>
+ * A placeholder must be a complete JSON string value, i.e. "{{name}}" inclusive the quotes, and is replaced by the
+ * JSON of the parameter, so numbers stay numbers. Use compile(String) for placeholders at positions where the
+ * SearchSourceBuilder doesn't take strings, e.g. "size": "{{size}}".<br>
+ * Parameters can be Strings, Numbers, Booleans, NULL, Collections and arrays of these, everything else is serialized
+ * with Gson.
+ */
+public class QueryTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\"\\{\\{([A-Za-z0-9_.\\-]+)}}\"");
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final List<String> UNSUPPORTED_KEYS = Arrays.asList("aggs", "aggregations", "suggest");
+
+    private final byte[][] literals;
+    private final String[] names;
+    private final Set<String> parameterNames;
+
+    private QueryTemplate(final byte[][] literals, final String[] names) {
+        this.literals = literals;
+        this.names = names;
+        this.parameterNames = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(names)));
+    }
+
+    /**
+     * @return placeholder which can be passed to the SearchSourceBuilder wherever a String or Object value is accepted
+     */
+    public static String param(final String name) {
+        Objects.requireNonNull(name, "name must not be NULL.");
+        return "{{" + name + "}}";
+    }
+
+    /**
+     * Aggregations and suggesters are not supported, because the response is parsed without the parsers of the
+     * high-level client for them.
+     */
+    public static QueryTemplate compile(final SearchSourceBuilder source) {
+        Objects.requireNonNull(source, "source must not be NULL.");
+        return compile(Strings.toString(source));
+    }
+
+    /**
+     * Same restrictions as compile(SearchSourceBuilder), the template must be a JSON object without "aggs",
+     * "aggregations" and "suggest".
+     */
+    public static QueryTemplate compile(final String jsonTemplate) {
+        Objects.requireNonNull(jsonTemplate, "jsonTemplate must not be NULL.");
+        validate(jsonTemplate);
+        final List<byte[]> literals = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final Matcher matcher = PLACEHOLDER.matcher(jsonTemplate);
+        int position = 0;
+        while (matcher.find()) {
+            literals.add(jsonTemplate.substring(position, matcher.start()).getBytes(StandardCharsets.UTF_8));
+            names.add(matcher.group(1));
+            position = matcher.end();
+        }
+        literals.add(jsonTemplate.substring(position).getBytes(StandardCharsets.UTF_8));
+        return new QueryTemplate(literals.toArray(new byte[0][]), names.toArray(new String[0]));
+    }
+
+    /**
+     * @return JSON body with all placeholders replaced
+     * @throws IllegalArgumentException if a parameter is missing
+     */
+    public byte[] render(final Map<String, ?> parameters) {
+        Objects.requireNonNull(parameters, "parameters must not be NULL.");
+        final byte[][] values = new byte[this.names.length][];
+        int length = 0;
+        for (int i = 0; i < this.names.length; i++) {
+            if (!parameters.containsKey(this.names[i])) {
+                throw new IllegalArgumentException("Missing parameter for QueryTemplate: " + this.names[i]);
+            }
+            values[i] = toJson(parameters.get(this.names[i]));
+            length += values[i].length;
+        }
+        for (final byte[] literal : this.literals) {
+            length += literal.length;
+        }
+
+        final byte[] body = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < this.literals.length; i++) {
+            System.arraycopy(this.literals[i], 0, body, offset, this.literals[i].length);
+            offset += this.literals[i].length;
+            if (i < values.length) {
+                System.arraycopy(values[i], 0, body, offset, values[i].length);
+                offset += values[i].length;
+            }
+        }
+        return body;
+    }
+
+    public NByteArrayEntity renderAsEntity(final Map<String, ?> parameters) {
+        return new NByteArrayEntity(this.render(parameters), ContentType.APPLICATION_JSON);
+    }
+
+    public Set<String> getParameterNames() {
+        return this.parameterNames;
+    }
+
+    private static void validate(final String jsonTemplate) {
+        final JsonElement json;
+        try {
+            json = JsonParser.parseString(jsonTemplate);
+        } catch (final JsonParseException e) {
+            throw new IllegalArgumentException("QueryTemplate must be valid JSON: " + e.getMessage(), e);
+        }
+        if (!json.isJsonObject()) {
+            throw new IllegalArgumentException("QueryTemplate must be a JSON object.");
+        }
+        for (final String key : UNSUPPORTED_KEYS) {
+            if (json.getAsJsonObject().has(key)) {
+                throw new IllegalArgumentException("QueryTemplate doesn't support aggregations and suggesters, use a regular search instead.");
+            }
+        }
+    }
+
+    private static byte[] toJson(final Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        final StringBuilder json = new StringBuilder();
+        appendJson(json, value);
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendJson(final StringBuilder json, final Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof CharSequence || value instanceof Enum) {
+            appendString(json, value.toString());
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            json.append(value);
+        } else if (value instanceof Collection) {
+            appendArray(json, ((Collection<?>) value).toArray());
+        } else if (value instanceof Object[]) {
+            appendArray(json, (Object[]) value);
+        } else {
+            // Doubles (NaN is invalid JSON), BigDecimals, dates etc.
+            json.append(ElsaStatics.GSON.toJson(value));
+        }
+    }
+
+    private static void appendArray(final StringBuilder json, final Object[] values) {
+        json.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendJson(json, values[i]);
+        }
+        json.append(']');
+    }
+
+    private static void appendString(final StringBuilder json, final String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+}
@@ -18,10 +18,15 @@ package io.github.ss3rg3.elsa.jsonmapper;
 
 import com.google.gson.Gson;
 import io.github.ss3rg3.elsa.model.ElsaModel;
+import org.elasticsearch.common.bytes.BytesReference;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
-public class GsonAdapter<T extends ElsaModel> implements JsonMapper<T> {
+public class GsonAdapter<T extends ElsaModel> implements JsonMapper<T>, ProjectionMapper {
 
     private final Gson gson;
     private final Class<T> clazz;
@@ -36,6 +41,11 @@ public class GsonAdapter<T extends ElsaModel> implements JsonMapper<T> {
         return this.gson.toJson(model);
     }
 
+    @Override
+    public String toJson(final Map<String, Object> map) {
+        return this.gson.toJson(map);
+    }
+
     @Override
     public T fromJson(final String json) {
         return this.gson.fromJson(json, this.clazz);
@@ -46,4 +56,29 @@ public class GsonAdapter<T extends ElsaModel> implements JsonMapper<T> {
         return this.gson.fromJson(this.gson.toJsonTree(map), this.clazz);
     }
 
+    @Override
+    public <P> P fromJson(final String json, final Class<P> projectionClass) {
+        return this.gson.fromJson(json, projectionClass);
+    }
+
+    @Override
+    public T fromJson(final BytesReference source) {
+        return this.fromJson(source, this.clazz);
+    }
+
+    /**
+     * Gson reads from the bytes via a small buffer, so the _source is never copied into a String.
+     */
+    @Override
+    public <P> P fromJson(final BytesReference source, final Class<P> projectionClass) {
+        if (source == null) {
+            return null;
+        }
+        try (Reader reader = new InputStreamReader(source.streamInput(), StandardCharsets.UTF_8)) {
+            return this.gson.fromJson(reader, projectionClass);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Couldn't read JSON from bytes.", e);
+        }
+    }
+
 }
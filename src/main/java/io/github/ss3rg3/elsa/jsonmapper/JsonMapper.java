@@ -17,7 +17,12 @@
 package io.github.ss3rg3.elsa.jsonmapper;
 
 import io.github.ss3rg3.elsa.model.ElsaModel;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.xcontent.XContentFactory;
 
+import java.io.IOException;
 import java.util.Map;
 
 public interface JsonMapper<T extends ElsaModel> {
@@ -26,4 +31,31 @@ public interface JsonMapper<T extends ElsaModel> {
     T fromJson(String json);
     T fromJson(Map<String,Object> map);
 
+    /**
+     * Used for partial updates, see CrudDAO.updateFields(). The default serializes the map with Elasticsearch's
+     * XContent, so custom mappers keep compiling. Override it if the values need the same serialization as the
+     * fields of the model.
+     */
+    default String toJson(final Map<String, Object> map) {
+        try {
+            return Strings.toString(XContentFactory.jsonBuilder().map(map));
+        } catch (final IOException e) {
+            throw new IllegalStateException("Couldn't serialize map to JSON.", e);
+        }
+    }
+
+    /**
+     * Reads the model directly from the UTF-8 bytes of the _source. Used on all read paths of the DAOs.
+     * The default decodes the bytes into a String, implementations should read the bytes as a stream instead.
+     *
+     * @return NULL if source is NULL
+     */
+    default T fromJson(final BytesReference source) {
+        return source == null ? null : this.fromJson(source.utf8ToString());
+    }
+
+    default T fromJson(final byte[] source) {
+        return source == null ? null : this.fromJson(new BytesArray(source));
+    }
+
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.jsonmapper;
+
+import org.elasticsearch.common.bytes.BytesReference;
+
+/**
+ * Optional capability of a JsonMapper: reads the _source into other classes than the model, used for _source
+ * filtering with projection classes, e.g. CrudDAO.get(id, projectionClass) and SearchDAO.searchAndMapToList(request,
+ * projectionClass). GsonAdapter implements it.
+ */
+public interface ProjectionMapper {
+
+    <P> P fromJson(String json, Class<P> projectionClass);
+
+    /**
+     * The default decodes the bytes into a String, implementations should read the bytes as a stream instead.
+     *
+     * @return NULL if source is NULL
+     */
+    default <P> P fromJson(final BytesReference source, final Class<P> projectionClass) {
+        return source == null ? null : this.fromJson(source.utf8ToString(), projectionClass);
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the mapper doesn't implement ProjectionMapper
+     */
+    static ProjectionMapper of(final JsonMapper<?> jsonMapper) {
+        if (jsonMapper instanceof ProjectionMapper) {
+            return (ProjectionMapper) jsonMapper;
+        }
+        throw new UnsupportedOperationException(jsonMapper.getClass().getName() + " doesn't support projection " +
+                "classes, implement ProjectionMapper to use them.");
+    }
+
+}
@@ -64,6 +64,7 @@ public class IndexConfig {
     private final TimeValue refreshInterval;
     private final Class<? extends ElsaModel> mappingClass;
     private final Map<String, Object> settings;
+    private final boolean routingRequired;
 
 
     // ------------------------------------------------------------------------------------------ //
@@ -78,6 +79,7 @@ public class IndexConfig {
         this.refreshInterval = config.refreshInterval;
         this.mappingClass = config.mappingClass;
         this.settings = config.settings;
+        this.routingRequired = config.routingRequired;
     }
 
 
@@ -95,6 +97,7 @@ public class IndexConfig {
         private TimeValue refreshInterval = TimeValue.timeValueSeconds(1);
         private Class<? extends ElsaModel> mappingClass;
         private final Map<String, Object> settings = new HashMap<>();
+        private boolean routingRequired = false;
 
         public Config indexName(final String mandatorySetting) {
             this.indexName = mandatorySetting;
@@ -121,6 +124,15 @@ public class IndexConfig {
             return this;
         }
 
+        /**
+         * Marks _routing as required in the mapping, so Elasticsearch rejects requests without routing. The model
+         * should implement RoutingAware.
+         */
+        public Config routingRequired(final boolean defaultIsFalse) {
+            this.routingRequired = defaultIsFalse;
+            return this;
+        }
+
         /**
          * Supported types are Boolean, Integer, Double, String. Rest will throw. Elastic Java API can handle more, but
          * no idea what they used for.<br><br>
@@ -177,4 +189,8 @@ public class IndexConfig {
     public Map<String, Object> getSettings() {
         return this.settings;
     }
+
+    public boolean isRoutingRequired() {
+        return this.routingRequired;
+    }
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.model;
+
+/**
+ * Implement this in your ElsaModel to route its documents to one shard, e.g. by tenant. The routing is applied to
+ * all index, update, upsert and delete requests which the CrudDAO builds from the model, incl. bulk.
+ * Gets and searches need the routing explicitly, see CrudDAO.getRouted() and SearchDAO.searchRouted().
+ */
+public interface RoutingAware {
+
+    /**
+     * @return routing value, NULL means default routing by ID
+     */
+    String getRouting();
+
+}
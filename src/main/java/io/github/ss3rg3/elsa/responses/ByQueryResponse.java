@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.responses;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Response of _delete_by_query and _update_by_query, also used as final result of a finished task.
+ */
+public class ByQueryResponse implements JsonConvertible {
+
+    @Override
+    public boolean validate() {
+        Objects.requireNonNull(this.took, "'took' must not be NULL.");
+        Objects.requireNonNull(this.timedOut, "'timedOut' must not be NULL.");
+        Objects.requireNonNull(this.total, "'total' must not be NULL.");
+        Objects.requireNonNull(this.batches, "'batches' must not be NULL.");
+        Objects.requireNonNull(this.versionConflicts, "'versionConflicts' must not be NULL.");
+        Objects.requireNonNull(this.noops, "'noops' must not be NULL.");
+        Objects.requireNonNull(this.failures, "'failures' must not be NULL.");
+        return true;
+    }
+
+    @SerializedName("took")
+    @Expose
+    private Long took;
+
+    @SerializedName("timed_out")
+    @Expose
+    private Boolean timedOut;
+
+    @SerializedName("total")
+    @Expose
+    private Long total;
+
+    @SerializedName("updated")
+    @Expose
+    private Long updated;
+
+    @SerializedName("deleted")
+    @Expose
+    private Long deleted;
+
+    @SerializedName("batches")
+    @Expose
+    private Long batches;
+
+    @SerializedName("version_conflicts")
+    @Expose
+    private Long versionConflicts;
+
+    @SerializedName("noops")
+    @Expose
+    private Long noops;
+
+    @SerializedName("retries")
+    @Expose
+    private ReindexResponse.Retries retries;
+
+    @SerializedName("throttled_millis")
+    @Expose
+    private Long throttledMillis;
+
+    @SerializedName("requests_per_second")
+    @Expose
+    private Double requestsPerSecond;
+
+    @SerializedName("throttled_until_millis")
+    @Expose
+    private Long throttledUntilMillis;
+
+    @SerializedName("failures")
+    @Expose
+    private List<Object> failures;
+
+    public Long getTook() {
+        return this.took;
+    }
+
+    public Boolean getTimedOut() {
+        return this.timedOut;
+    }
+
+    public Long getTotal() {
+        return this.total;
+    }
+
+    /**
+     * @return NULL for _delete_by_query
+     */
+    public Long getUpdated() {
+        return this.updated;
+    }
+
+    /**
+     * @return NULL for _update_by_query
+     */
+    public Long getDeleted() {
+        return this.deleted;
+    }
+
+    public Long getBatches() {
+        return this.batches;
+    }
+
+    public Long getVersionConflicts() {
+        return this.versionConflicts;
+    }
+
+    public Long getNoops() {
+        return this.noops;
+    }
+
+    public ReindexResponse.Retries getRetries() {
+        return this.retries;
+    }
+
+    public Long getThrottledMillis() {
+        return this.throttledMillis;
+    }
+
+    public Double getRequestsPerSecond() {
+        return this.requestsPerSecond;
+    }
+
+    public Long getThrottledUntilMillis() {
+        return this.throttledUntilMillis;
+    }
+
+    public List<Object> getFailures() {
+        return this.failures;
+    }
+}
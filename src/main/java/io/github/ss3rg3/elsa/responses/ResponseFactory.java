@@ -20,13 +20,20 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import io.github.ss3rg3.elsa.helpers.ResponseParser;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.xcontent.DeprecationHandler;
+import org.elasticsearch.xcontent.NamedXContentRegistry;
+import org.elasticsearch.xcontent.XContentParseException;
+import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xcontent.XContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import io.github.ss3rg3.elsa.statics.ElsaStatics;
 import io.github.ss3rg3.elsa.statics.Messages.ExceptionMsg;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 import java.util.List;
@@ -55,6 +62,56 @@ public class ResponseFactory {
         }
     }
 
+    public static ByQueryResponse createByQueryResponse(final Response response) {
+        try (final InputStreamReader reader = ResponseParser.convertToReader(response)) {
+            return ElsaStatics.GSON.fromJson(reader, ByQueryResponse.class);
+        } catch (final IOException e) {
+            logger.error(ExceptionMsg.FAILED_TO_GET_INPUTSTREAMREADER_FROM_RESPONSE, e);
+            throw new IllegalStateException(ExceptionMsg.FAILED_TO_GET_INPUTSTREAMREADER_FROM_RESPONSE, e);
+        }
+    }
+
+    public static TaskResponse createTaskResponse(final Response response) {
+        try (final InputStreamReader reader = ResponseParser.convertToReader(response)) {
+            return ElsaStatics.GSON.fromJson(reader, TaskResponse.class);
+        } catch (final IOException e) {
+            logger.error(ExceptionMsg.FAILED_TO_GET_INPUTSTREAMREADER_FROM_RESPONSE, e);
+            throw new IllegalStateException(ExceptionMsg.FAILED_TO_GET_INPUTSTREAMREADER_FROM_RESPONSE, e);
+        }
+    }
+
+    /**
+     * Extracts the task ID of a request which was sent with wait_for_completion=false
+     */
+    public static String createTaskIdResponse(final Response response) {
+        try (final InputStreamReader reader = ResponseParser.convertToReader(response)) {
+            return ElsaStatics.GSON.fromJson(reader, JsonObject.class)
+                    .get("task")
+                    .getAsString();
+        } catch (final IOException e) {
+            logger.error(ExceptionMsg.FAILED_TO_GET_INPUTSTREAMREADER_FROM_RESPONSE, e);
+            throw new IllegalStateException(ExceptionMsg.FAILED_TO_GET_INPUTSTREAMREADER_FROM_RESPONSE, e);
+        }
+    }
+
+    /**
+     * Parses the response of a search which was sent via the low-level client, e.g. from a QueryTemplate.
+     * Aggregations and suggestions can't be parsed, because the parsers of the high-level client for them aren't
+     * accessible.
+     *
+     * @throws IOException if the body can't be read or isn't a parsable SearchResponse
+     */
+    public static SearchResponse createSearchResponse(final Response response) throws IOException {
+        try (final InputStream inputStream = response.getEntity().getContent();
+             final XContentParser parser = XContentType.JSON.xContent().createParser(
+                     NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, inputStream)) {
+            return SearchResponse.fromXContent(parser);
+        } catch (final XContentParseException e) {
+            logger.error(ExceptionMsg.COULD_NOT_PARSE_SEARCH_RESPONSE, e);
+            throw new IOException(ExceptionMsg.COULD_NOT_PARSE_SEARCH_RESPONSE, e);
+        }
+    }
+
     public static ConfirmationResponse createConfirmationResponse(final Response response) {
         try (final InputStreamReader reader = ResponseParser.convertToReader(response)) {
             return ElsaStatics.GSON.fromJson(reader, ConfirmationResponse.class);
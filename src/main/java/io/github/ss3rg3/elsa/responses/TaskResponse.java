@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.responses;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Response of GET _tasks/{taskId} for _delete_by_query and _update_by_query tasks. While running, the progress is in
+ * the status of the task. When completed, the result is in the response or the error.
+ */
+public class TaskResponse implements JsonConvertible {
+
+    @Override
+    public boolean validate() {
+        Objects.requireNonNull(this.completed, "'completed' must not be NULL.");
+        Objects.requireNonNull(this.task, "'task' must not be NULL.");
+        return true;
+    }
+
+    @SerializedName("completed")
+    @Expose
+    private Boolean completed;
+
+    @SerializedName("task")
+    @Expose
+    private Task task;
+
+    @SerializedName("response")
+    @Expose
+    private ByQueryResponse response;
+
+    @SerializedName("error")
+    @Expose
+    private Map<String, Object> error;
+
+
+    public static class Task {
+
+        @SerializedName("node")
+        @Expose
+        private String node;
+
+        @SerializedName("id")
+        @Expose
+        private Long id;
+
+        @SerializedName("action")
+        @Expose
+        private String action;
+
+        @SerializedName("status")
+        @Expose
+        private Status status;
+
+        @SerializedName("running_time_in_nanos")
+        @Expose
+        private Long runningTimeInNanos;
+
+        @SerializedName("cancellable")
+        @Expose
+        private Boolean cancellable;
+
+        public String getNode() {
+            return this.node;
+        }
+
+        public Long getId() {
+            return this.id;
+        }
+
+        public String getAction() {
+            return this.action;
+        }
+
+        public Status getStatus() {
+            return this.status;
+        }
+
+        public Long getRunningTimeInNanos() {
+            return this.runningTimeInNanos;
+        }
+
+        public Boolean getCancellable() {
+            return this.cancellable;
+        }
+    }
+
+    public static class Status {
+
+        @SerializedName("total")
+        @Expose
+        private Long total;
+
+        @SerializedName("updated")
+        @Expose
+        private Long updated;
+
+        @SerializedName("deleted")
+        @Expose
+        private Long deleted;
+
+        @SerializedName("batches")
+        @Expose
+        private Long batches;
+
+        @SerializedName("version_conflicts")
+        @Expose
+        private Long versionConflicts;
+
+        @SerializedName("noops")
+        @Expose
+        private Long noops;
+
+        @SerializedName("requests_per_second")
+        @Expose
+        private Double requestsPerSecond;
+
+        public Long getTotal() {
+            return this.total;
+        }
+
+        public Long getUpdated() {
+            return this.updated;
+        }
+
+        public Long getDeleted() {
+            return this.deleted;
+        }
+
+        public Long getBatches() {
+            return this.batches;
+        }
+
+        public Long getVersionConflicts() {
+            return this.versionConflicts;
+        }
+
+        public Long getNoops() {
+            return this.noops;
+        }
+
+        public Double getRequestsPerSecond() {
+            return this.requestsPerSecond;
+        }
+
+        /**
+         * @return Processed documents (updated, deleted, conflicts, noops) divided by total, 0 if total is unknown yet
+         */
+        public double getProgress() {
+            if (this.total == null || this.total == 0) {
+                return 0;
+            }
+            final long processed = orZero(this.updated) + orZero(this.deleted) + orZero(this.versionConflicts) + orZero(this.noops);
+            return (double) processed / this.total;
+        }
+
+        private static long orZero(final Long value) {
+            return value == null ? 0 : value;
+        }
+    }
+
+    public Boolean getCompleted() {
+        return this.completed;
+    }
+
+    public Task getTask() {
+        return this.task;
+    }
+
+    /**
+     * @return NULL if the task is not completed or failed
+     */
+    public ByQueryResponse getResponse() {
+        return this.response;
+    }
+
+    /**
+     * @return NULL if the task didn't fail
+     */
+    public Map<String, Object> getError() {
+        return this.error;
+    }
+}
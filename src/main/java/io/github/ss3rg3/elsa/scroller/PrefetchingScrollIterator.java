@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.scroller;
+
+import io.github.ss3rg3.elsa.ElsaClient;
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.exceptions.ElsaIOException;
+import io.github.ss3rg3.elsa.exceptions.ElsaUncheckedException;
+import io.github.ss3rg3.elsa.helpers.Futures;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.search.SearchHit;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over all hits of a scroll and requests the next pages in the background while the consumer works on the
+ * current one, see Scroller.iterate(). At most prefetchDepth pages are buffered, and no further page is requested
+ * while the buffered _source exceeds maxBufferedBytes. The scroll ID is handled internally and the scroll is cleared
+ * when the last page was consumed or on close().<br>
+ * Exceptions are thrown as ElsaUncheckedException, because Iterator doesn't allow checked exceptions.
+ */
+public class PrefetchingScrollIterator implements Iterator<SearchHit>, AutoCloseable {
+
+    private final ElsaClient elsa;
+    private final Scroller scroller;
+    private final ScrollManager scrollManager;
+    private final int prefetchDepth;
+    private final long maxBufferedBytes;
+    private final RequestOptions options;
+
+    private final Object lock = new Object();
+    private final Deque<SearchResponse> buffer = new ArrayDeque<>();
+    private long bufferedBytes = 0;
+    private boolean fetching = false;
+    private boolean exhausted = false;
+    private boolean closed = false;
+    private ElsaException failure;
+    private Iterator<SearchHit> page = Collections.emptyIterator();
+
+    PrefetchingScrollIterator(final ElsaClient elsa,
+                              final Scroller scroller,
+                              final SearchRequest searchRequest,
+                              final ScrollManager scrollManager,
+                              final int prefetchDepth,
+                              final long maxBufferedBytes,
+                              final RequestOptions options) throws ElsaException {
+        if (prefetchDepth <= 0) {
+            throw new IllegalArgumentException("prefetchDepth must be greater than 0, got: " + prefetchDepth);
+        }
+        this.elsa = elsa;
+        this.scroller = scroller;
+        this.scrollManager = scrollManager;
+        this.prefetchDepth = prefetchDepth;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.options = options;
+
+        final SearchResponse firstPage = scroller.initialize(searchRequest, scrollManager, options);
+        synchronized (this.lock) {
+            this.addPage(firstPage);
+            this.prefetch();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!this.page.hasNext()) {
+            final SearchResponse next = this.takePage();
+            if (next == null) {
+                this.close();
+                return false;
+            }
+            this.page = Arrays.asList(next.getHits().getHits()).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public SearchHit next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return this.page.next();
+    }
+
+    /**
+     * Clears the scroll. Pages which are still in flight are discarded.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.buffer.clear();
+            this.bufferedBytes = 0;
+            this.lock.notifyAll();
+        }
+        this.scroller.clearQuietly(this.scrollManager, this.options);
+    }
+
+    /**
+     * @return Number of pages which are fetched but not consumed yet
+     */
+    public int getBufferedPages() {
+        synchronized (this.lock) {
+            return this.buffer.size();
+        }
+    }
+
+    public long getBufferedBytes() {
+        synchronized (this.lock) {
+            return this.bufferedBytes;
+        }
+    }
+
+    /**
+     * @return next page or NULL if there are no more hits
+     */
+    private SearchResponse takePage() {
+        final ElsaException e;
+        synchronized (this.lock) {
+            while (this.buffer.isEmpty() && !this.exhausted && this.failure == null && !this.closed) {
+                try {
+                    this.lock.wait();
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    this.failure = new ElsaIOException(new InterruptedIOException("Interrupted while waiting for next scroll page."));
+                }
+            }
+            final SearchResponse next = this.buffer.poll();
+            if (next != null) {
+                this.bufferedBytes -= sourceBytes(next);
+                this.prefetch();
+                return next;
+            }
+            if (this.failure == null) {
+                return null;
+            }
+            e = this.failure;
+        }
+        this.close();
+        throw new ElsaUncheckedException(e);
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void prefetch() {
+        if (this.fetching || this.exhausted || this.closed || this.failure != null) {
+            return;
+        }
+        if (this.buffer.size() >= this.prefetchDepth || (!this.buffer.isEmpty() && this.bufferedBytes >= this.maxBufferedBytes)) {
+            return;
+        }
+        this.fetching = true;
+        final SearchScrollRequest request = new SearchScrollRequest(this.scrollManager.getScrollId()).scroll(this.scrollManager.getScroll());
+        this.elsa.client.scrollAsync(request, this.options, new ActionListener<SearchResponse>() {
+            @Override
+            public void onResponse(final SearchResponse response) {
+                synchronized (PrefetchingScrollIterator.this.lock) {
+                    PrefetchingScrollIterator.this.fetching = false;
+                    if (!PrefetchingScrollIterator.this.closed) {
+                        PrefetchingScrollIterator.this.addPage(response);
+                        PrefetchingScrollIterator.this.prefetch();
+                    }
+                    PrefetchingScrollIterator.this.lock.notifyAll();
+                }
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                synchronized (PrefetchingScrollIterator.this.lock) {
+                    PrefetchingScrollIterator.this.fetching = false;
+                    PrefetchingScrollIterator.this.failure = Futures.toElsaException(e);
+                    PrefetchingScrollIterator.this.lock.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void addPage(final SearchResponse response) {
+        if (response.getScrollId() != null) {
+            this.scrollManager.updateScrollId(response);
+        }
+        if (!this.scroller.hasHits(response)) {
+            this.exhausted = true;
+            return;
+        }
+        this.buffer.add(response);
+        this.bufferedBytes += sourceBytes(response);
+    }
+
+    private static long sourceBytes(final SearchResponse response) {
+        long bytes = 0;
+        for (final SearchHit hit : response.getHits().getHits()) {
+            if (hit.getSourceRef() != null) {
+                bytes += hit.getSourceRef().length();
+            }
+        }
+        return bytes;
+    }
+
+}
@@ -26,6 +26,7 @@ public class ScrollManager {
 
     private final Scroll scroll;
     private String scrollId;
+    private volatile long lastActivity = System.currentTimeMillis();
 
     public ScrollManager(TimeValue timeout) {
         this.scroll = new Scroll(timeout);
@@ -34,6 +35,7 @@ public class ScrollManager {
     public void updateScrollId(SearchResponse searchResponse) {
         Objects.requireNonNull(searchResponse.getScrollId());
         this.scrollId = searchResponse.getScrollId();
+        this.touch();
     }
 
     public Scroll getScroll() {
@@ -43,4 +45,15 @@ public class ScrollManager {
     public String getScrollId() {
         return scrollId;
     }
+
+    /**
+     * @return Time in millis of the last request on this scroll, used by the Scroller to reap leaked scrolls
+     */
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    void touch() {
+        this.lastActivity = System.currentTimeMillis();
+    }
 }
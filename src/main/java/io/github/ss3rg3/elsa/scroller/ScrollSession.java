@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.scroller;
+
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+
+/**
+ * A scroll which clears itself on close(), see Scroller.openSession(). Use it in try-with-resources, so the scroll
+ * context is also released when the processing throws:
+ * <pre>
+ * try (ScrollSession session = elsa.scroller.openSession(request, keepAlive)) {
+ *     while (session.hasHits()) {
+ *         process(session.getCurrent());
+ *         session.next();
+ *     }
+ * }
+ * </pre>
+ */
+public class ScrollSession implements AutoCloseable {
+
+    private final Scroller scroller;
+    private final ScrollManager scrollManager;
+    private final RequestOptions options;
+    private SearchResponse current;
+    private boolean closed = false;
+
+    ScrollSession(final Scroller scroller,
+                  final SearchRequest searchRequest,
+                  final ScrollManager scrollManager,
+                  final RequestOptions options) throws ElsaException {
+        this.scroller = scroller;
+        this.scrollManager = scrollManager;
+        this.options = options;
+        this.current = scroller.initialize(searchRequest, scrollManager, options);
+    }
+
+    /**
+     * @return the current page, initially the response of the initial search
+     */
+    public SearchResponse getCurrent() {
+        return this.current;
+    }
+
+    public boolean hasHits() {
+        return this.scroller.hasHits(this.current);
+    }
+
+    /**
+     * Fetches the next page and makes it the current one.
+     */
+    public SearchResponse next() throws ElsaException {
+        if (this.closed) {
+            throw new IllegalStateException("ScrollSession is already closed.");
+        }
+        this.current = this.scroller.getNext(this.scrollManager, this.current, this.options);
+        return this.current;
+    }
+
+    public ScrollManager getScrollManager() {
+        return this.scrollManager;
+    }
+
+    /**
+     * Clears the scroll. Doesn't throw, so an exception from the processing isn't hidden.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.scroller.clearQuietly(this.scrollManager, this.options);
+    }
+
+}
@@ -20,18 +20,70 @@ import io.github.ss3rg3.elsa.ElsaClient;
 import io.github.ss3rg3.elsa.exceptions.ElsaElasticsearchException;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
 import io.github.ss3rg3.elsa.exceptions.ElsaIOException;
+import io.github.ss3rg3.elsa.exceptions.ElsaUncheckedException;
+import io.github.ss3rg3.elsa.helpers.Futures;
+import io.github.ss3rg3.elsa.model.IndexConfig;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.search.*;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 public class Scroller {
 
+    private static final Logger logger = LoggerFactory.getLogger(Scroller.class);
+    private static final long REAPER_INTERVAL_IN_MILLIS = TimeValue.timeValueSeconds(10).millis();
+
+    /**
+     * Only sends clear requests for leaked scrolls, so one thread for all Scrollers is enough.
+     */
+    private static final ScheduledExecutorService reaperScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "elsa-scroll-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final ElsaClient elsa;
+    private final TimeValue maxInactivity;
+    private final Set<ScrollManager> openScrolls = ConcurrentHashMap.newKeySet();
+    private final Object reaperLock = new Object();
+    private ScheduledFuture<?> reaperTask;
+    private final LongAdder reapedScrollCount = new LongAdder();
 
     public Scroller(final ElsaClient elsa) {
+        this(elsa, null);
+    }
+
+    /**
+     * @param maxInactivity open scrolls without a request for this long are cleared by the reaper. NULL only
+     *                      forgets scrolls whose keep-alive has expired.
+     */
+    public Scroller(final ElsaClient elsa, final TimeValue maxInactivity) {
         this.elsa = elsa;
+        this.maxInactivity = maxInactivity;
     }
 
     public SearchResponse initialize(final SearchRequest searchRequest,
@@ -40,6 +92,7 @@ public class Scroller {
         try {
             final SearchResponse searchResponse = this.elsa.client.search(searchRequest.scroll(scrollManager.getScroll()), options);
             scrollManager.updateScrollId(searchResponse);
+            this.register(scrollManager);
             return searchResponse;
         } catch (final IOException e) {
             throw new ElsaIOException(e);
@@ -85,6 +138,8 @@ public class Scroller {
             throw new ElsaIOException(e);
         } catch (final ElasticsearchException e) {
             throw new ElsaElasticsearchException(e);
+        } finally {
+            this.unregister(scrollManager);
         }
     }
 
@@ -92,4 +147,241 @@ public class Scroller {
         return this.clearScroll(scrollManager, RequestOptions.DEFAULT);
     }
 
+
+    // ------------------------------------------------------------------------------------------ //
+    // SCROLL SESSION
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Initializes the scroll and returns a session which clears it on close(). Use it in try-with-resources, so the
+     * scroll context doesn't leak when the processing throws. See ScrollSession.
+     */
+    public ScrollSession openSession(final SearchRequest searchRequest,
+                                     final TimeValue keepAlive,
+                                     final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        return new ScrollSession(this, searchRequest, new ScrollManager(keepAlive), options);
+    }
+
+    public ScrollSession openSession(final SearchRequest searchRequest, final TimeValue keepAlive) throws ElsaException {
+        return this.openSession(searchRequest, keepAlive, RequestOptions.DEFAULT);
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // OPEN SCROLLS & REAPER
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * @return Number of scrolls which were initialized but not cleared yet
+     */
+    public int getOpenScrollCount() {
+        return this.openScrolls.size();
+    }
+
+    /**
+     * @return Number of scrolls which were cleared by the reaper because they were inactive for too long
+     */
+    public long getReapedScrollCount() {
+        return this.reapedScrollCount.sum();
+    }
+
+    /**
+     * The reaper only runs while there are open scrolls. Otherwise the static scheduler would keep this Scroller and
+     * its ElsaClient reachable forever.
+     */
+    private void register(final ScrollManager scrollManager) {
+        synchronized (this.reaperLock) {
+            this.openScrolls.add(scrollManager);
+            if (this.reaperTask == null) {
+                this.reaperTask = reaperScheduler.scheduleWithFixedDelay(this::reap, REAPER_INTERVAL_IN_MILLIS, REAPER_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void unregister(final ScrollManager scrollManager) {
+        synchronized (this.reaperLock) {
+            this.openScrolls.remove(scrollManager);
+            if (this.openScrolls.isEmpty() && this.reaperTask != null) {
+                this.reaperTask.cancel(false);
+                this.reaperTask = null;
+            }
+        }
+    }
+
+    boolean isReaperScheduled() {
+        synchronized (this.reaperLock) {
+            return this.reaperTask != null;
+        }
+    }
+
+    /**
+     * Scrolls past their keep-alive are already gone on the cluster, so they are only removed from the registry.
+     * Scrolls past maxInactivity are still open on the cluster and get cleared.
+     */
+    void reap() {
+        final long now = System.currentTimeMillis();
+        for (final ScrollManager scrollManager : this.openScrolls) {
+            final long inactiveMillis = now - scrollManager.getLastActivity();
+            try {
+                if (inactiveMillis >= scrollManager.getScroll().keepAlive().millis()) {
+                    this.unregister(scrollManager);
+                } else if (this.maxInactivity != null && inactiveMillis >= this.maxInactivity.millis()) {
+                    logger.warn("Clearing scroll which was inactive for " + TimeValue.timeValueMillis(inactiveMillis) + ", probably it wasn't cleared after use.");
+                    this.reapedScrollCount.increment();
+                    this.clearQuietly(scrollManager, RequestOptions.DEFAULT);
+                }
+            } catch (final RuntimeException e) {
+                // Must not escape, otherwise the scheduler stops the reaper
+                logger.warn("Failed to reap scroll", e);
+            }
+        }
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // PREFETCHING ITERATOR
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Iterates over all hits of the scroll and fetches the next page while the current one is processed. Use it in
+     * try-with-resources, closing clears the scroll. See PrefetchingScrollIterator.
+     *
+     * @param prefetchDepth    max. number of pages which are fetched ahead
+     * @param maxBufferedBytes no further page is fetched while the buffered _source is bigger than this
+     */
+    public PrefetchingScrollIterator iterate(final SearchRequest searchRequest,
+                                             final TimeValue keepAlive,
+                                             final int prefetchDepth,
+                                             final ByteSizeValue maxBufferedBytes,
+                                             final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        Objects.requireNonNull(maxBufferedBytes, "maxBufferedBytes must not be NULL.");
+        return new PrefetchingScrollIterator(this.elsa, this, searchRequest, new ScrollManager(keepAlive),
+                prefetchDepth, maxBufferedBytes.getBytes(), options);
+    }
+
+    /**
+     * Double-buffered: fetches one page ahead, buffers at most 64mb.
+     */
+    public PrefetchingScrollIterator iterate(final SearchRequest searchRequest, final TimeValue keepAlive) throws ElsaException {
+        return this.iterate(searchRequest, keepAlive, 1, ByteSizeValue.ofMb(64), RequestOptions.DEFAULT);
+    }
+
+
+    // ------------------------------------------------------------------------------------------ //
+    // SLICED SCROLL
+    // ------------------------------------------------------------------------------------------ //
+
+    /**
+     * Scrolls through all hits with one sliced scroll per shard of the index, in parallel on a dedicated thread per
+     * slice. The threads are shut down when all slices are done. Blocks until all slices are done. The consumer is
+     * called from several threads, so it must be thread-safe. Without explicit indices the index of the IndexConfig
+     * is scrolled.
+     */
+    public void scrollSliced(final SearchRequest searchRequest,
+                             final IndexConfig indexConfig,
+                             final TimeValue keepAlive,
+                             final Consumer<SearchHit> consumer) throws ElsaException {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        Objects.requireNonNull(indexConfig, "indexConfig must not be NULL.");
+        final SearchRequest request = searchRequest.indices() == null || searchRequest.indices().length == 0
+                ? new SearchRequest(searchRequest).indices(indexConfig.getIndexName())
+                : searchRequest;
+        final int slices = indexConfig.getShards();
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(slices, runnable -> {
+            final Thread thread = new Thread(runnable, "elsa-scroll-slice-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            this.scrollSliced(request, slices, keepAlive, executor, consumer, RequestOptions.DEFAULT);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Scrolls through all hits with the given number of sliced scrolls (slice.id/slice.max) which run in parallel on
+     * the executor. The slices block their thread while scrolling, so use an executor with a thread per slice and
+     * not the common ForkJoinPool. Blocks until all slices are done. The consumer is called from several threads, so it must be
+     * thread-safe. If a slice fails, then the other slices stop after their current page. Every scroll context
+     * is cleared, also on failure. Throws the first failure.
+     */
+    public void scrollSliced(final SearchRequest searchRequest,
+                             final int slices,
+                             final TimeValue keepAlive,
+                             final Executor executor,
+                             final Consumer<SearchHit> consumer,
+                             final RequestOptions options) throws ElsaException {
+        Objects.requireNonNull(searchRequest, "searchRequest must not be NULL.");
+        Objects.requireNonNull(executor, "executor must not be NULL.");
+        Objects.requireNonNull(consumer, "consumer must not be NULL.");
+        if (slices <= 0) {
+            throw new IllegalArgumentException("slices must be greater than 0, got: " + slices);
+        }
+
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            final SearchRequest sliceRequest = this.buildSliceRequest(searchRequest, i, slices);
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    this.scrollSlice(sliceRequest, keepAlive, consumer, failed, options);
+                } catch (final ElsaException e) {
+                    failed.set(true);
+                    throw new ElsaUncheckedException(e);
+                } catch (final RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }, executor));
+        }
+        Futures.awaitAll(futures);
+    }
+
+    private void scrollSlice(final SearchRequest sliceRequest,
+                             final TimeValue keepAlive,
+                             final Consumer<SearchHit> consumer,
+                             final AtomicBoolean failed,
+                             final RequestOptions options) throws ElsaException {
+        final ScrollManager scrollManager = new ScrollManager(keepAlive);
+        try {
+            SearchResponse response = this.initialize(sliceRequest, scrollManager, options);
+            while (this.hasHits(response) && !failed.get()) {
+                for (final SearchHit hit : response.getHits().getHits()) {
+                    consumer.accept(hit);
+                }
+                response = this.getNext(scrollManager, response, options);
+            }
+        } finally {
+            this.clearQuietly(scrollManager, options);
+        }
+    }
+
+    private SearchRequest buildSliceRequest(final SearchRequest searchRequest, final int id, final int max) {
+        final SearchSourceBuilder source = searchRequest.source() == null ? new SearchSourceBuilder() : searchRequest.source().shallowCopy();
+        if (max > 1) {
+            source.slice(new SliceBuilder(id, max));
+        }
+        // Copy constructor keeps all other settings, e.g. timeout, request cache, search type
+        return new SearchRequest(searchRequest).source(source);
+    }
+
+    /**
+     * Doesn't throw, so the original failure isn't hidden. Scroll contexts expire after their keep-alive anyway.
+     * Scrolls which aren't open anymore (cleared, reaped or expired) are skipped.
+     */
+    void clearQuietly(final ScrollManager scrollManager, final RequestOptions options) {
+        if (scrollManager.getScrollId() == null || !this.openScrolls.contains(scrollManager)) {
+            return;
+        }
+        try {
+            this.clearScroll(scrollManager, options);
+        } catch (final ElsaException e) {
+            logger.warn("Failed to clear scroll, it expires after " + scrollManager.getScroll().keepAlive(), e);
+        }
+    }
+
 }
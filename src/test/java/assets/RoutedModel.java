@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package assets;
+
+import io.github.ss3rg3.elsa.model.ElsaModel;
+import io.github.ss3rg3.elsa.model.IndexConfig;
+import io.github.ss3rg3.elsa.model.RoutingAware;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+public class RoutedModel implements ElsaModel, RoutingAware {
+
+    public static IndexConfig indexConfig = new IndexConfig(c -> c
+            .indexName("elsa_routed_index")
+            .mappingClass(RoutedModel.class)
+            .shards(3)
+            .replicas(0)
+            .routingRequired(true));
+
+    @Id
+    private transient String id;
+
+    @Field(type = FieldType.Keyword)
+    private String tenant;
+
+    @Field(type = FieldType.Text)
+    private String text;
+
+    public RoutedModel() {
+    }
+
+    public RoutedModel(final String id, final String tenant, final String text) {
+        this.id = id;
+        this.tenant = tenant;
+        this.text = text;
+    }
+
+    @Override
+    public String getRouting() {
+        return this.tenant;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    public String getTenant() {
+        return this.tenant;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.benchmark;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting the requests of CrudDAO.indexAll() into batches by DaoConfig.bulkMaxSize: a throwaway BulkRequest per
+ * request to get its estimatedSizeInBytes() (the old way) vs. a running sum of DocWriteRequest.ramBytesUsed() (the
+ * current way). Only the sizing is measured, nothing is sent. Benchmarks are excluded from the default build, run
+ * them with
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Djmh.include=BulkSizingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkSizingBenchmark {
+
+    private static final int MAX_ACTIONS = 1000;
+    private static final long MAX_BYTES = ByteSizeUnit.MB.toBytes(5);
+
+    @Param({"100", "10000"})
+    public int requestCount;
+
+    @Param({"200", "5000"})
+    public int sourceLength;
+
+    private final List<DocWriteRequest<?>> requests = new ArrayList<>();
+
+    @Setup
+    public void createRequests() {
+        final String text = new String(new char[this.sourceLength]).replace('\0', 'a');
+        for (int i = 0; i < this.requestCount; i++) {
+            this.requests.add(new IndexRequest("benchmark").id(String.valueOf(i))
+                    .source("{\"text\":\"" + text + "\",\"number\":" + i + "}", XContentType.JSON));
+        }
+    }
+
+    @Benchmark
+    public List<BulkRequest> throwawayBulkRequest() {
+        final List<BulkRequest> batches = new ArrayList<>();
+        BulkRequest bulkRequest = new BulkRequest();
+        for (final DocWriteRequest<?> request : this.requests) {
+            if (bulkRequest.numberOfActions() > 0 && (bulkRequest.numberOfActions() >= MAX_ACTIONS ||
+                    bulkRequest.estimatedSizeInBytes() + new BulkRequest().add(request).estimatedSizeInBytes() > MAX_BYTES)) {
+                batches.add(bulkRequest);
+                bulkRequest = new BulkRequest();
+            }
+            bulkRequest.add(request);
+        }
+        batches.add(bulkRequest);
+        return batches;
+    }
+
+    @Benchmark
+    public List<BulkRequest> runningSum() {
+        final List<BulkRequest> batches = new ArrayList<>();
+        BulkRequest bulkRequest = new BulkRequest();
+        long batchBytes = 0;
+        for (final DocWriteRequest<?> request : this.requests) {
+            final long requestBytes = request.ramBytesUsed();
+            if (bulkRequest.numberOfActions() > 0 && (bulkRequest.numberOfActions() >= MAX_ACTIONS ||
+                    batchBytes + requestBytes > MAX_BYTES)) {
+                batches.add(bulkRequest);
+                bulkRequest = new BulkRequest();
+                batchBytes = 0;
+            }
+            bulkRequest.add(request);
+            batchBytes += requestBytes;
+        }
+        batches.add(bulkRequest);
+        return batches;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.benchmark;
+
+import assets.FakerModel;
+import io.github.ss3rg3.elsa.ElsaClient;
+import io.github.ss3rg3.elsa.dao.CrudDAO;
+import io.github.ss3rg3.elsa.dao.DaoConfig;
+import io.github.ss3rg3.elsa.dao.SearchResponseMapper;
+import io.github.ss3rg3.elsa.jsonmapper.JsonMapper;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static assets.TestHelpers.TEST_CLUSTER_HOSTS;
+
+/**
+ * Mapping a page of hits: from a String of the _source (the old way) vs. from the _source bytes, sequential vs.
+ * parallel, see DaoConfig.parallelHitMapping(). Use the page size at which parallel overtakes sequential as threshold.
+ * Benchmarks are excluded from the default build, run them with
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Djmh.include=HitMappingBenchmark
+ * </pre>
+ * Add -prof gc to the arguments in the benchmark profile to compare the allocations per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitMappingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int hitCount;
+
+    private SearchResponse response;
+    private JsonMapper<FakerModel> jsonMapper;
+    private SearchResponseMapper<FakerModel> sequentialMapper;
+    private SearchResponseMapper<FakerModel> parallelMapper;
+
+    @Setup
+    public void createPage() {
+        // No request is sent, the client is only needed to create the DAOs
+        final ElsaClient elsa = new ElsaClient(c -> c
+                .setClusterNodes(TEST_CLUSTER_HOSTS)
+                .createIndexesAndEnsureMappingConsistency(false));
+        final CrudDAO<FakerModel> sequentialDAO = elsa.createDAO(new DaoConfig(CrudDAO.class, FakerModel.indexConfig));
+        final CrudDAO<FakerModel> parallelDAO = elsa.createDAO(new DaoConfig(CrudDAO.class, FakerModel.indexConfig)
+                .parallelHitMapping(1));
+        this.jsonMapper = sequentialDAO.getJsonMapper();
+        this.sequentialMapper = sequentialDAO.getSearchResponseMapper();
+        this.parallelMapper = parallelDAO.getSearchResponseMapper();
+
+        final SearchHit[] hits = new SearchHit[this.hitCount];
+        for (int i = 0; i < this.hitCount; i++) {
+            final FakerModel model = FakerModel.createModelWithRandomData();
+            hits[i] = new SearchHit(i, String.valueOf(i), new Text("_doc"), Collections.emptyMap(), Collections.emptyMap())
+                    .sourceRef(new BytesArray(this.jsonMapper.toJson(model)));
+        }
+        this.response = new SearchResponse(new InternalSearchResponse(
+                new SearchHits(hits, new TotalHits(this.hitCount, TotalHits.Relation.EQUAL_TO), 1), null, null, null, false, null, 1),
+                null, 1, 1, 0, 1L, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+    }
+
+    @Benchmark
+    public List<FakerModel> fromString() {
+        final SearchHit[] hits = this.response.getHits().getHits();
+        final List<FakerModel> models = new ArrayList<>(hits.length);
+        for (final SearchHit hit : hits) {
+            final FakerModel model = this.jsonMapper.fromJson(hit.getSourceAsString());
+            model.setId(hit.getId());
+            models.add(model);
+        }
+        return models;
+    }
+
+    @Benchmark
+    public List<FakerModel> fromBytes() {
+        return this.sequentialMapper.mapHitsToList(this.response);
+    }
+
+    @Benchmark
+    public List<FakerModel> fromBytesParallel() {
+        return this.parallelMapper.mapHitsToList(this.response);
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.ss3rg3.elsa.helpers.QueryTemplate;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ss3rg3.elsa.helpers.Search.src;
+
+/**
+ * Body of a hot search rendered from a QueryTemplate vs. building and serializing the SearchSourceBuilder for every
+ * search, which is what search(SearchRequest) does. Benchmarks are excluded from the default build, run them with
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Djmh.include=QueryTemplateBenchmark
+ * </pre>
+ * Add -prof gc to the arguments in the benchmark profile to compare the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryTemplateBenchmark {
+
+    private final QueryTemplate template = QueryTemplate.compile(src()
+            .size(20)
+            .query(QueryBuilders.boolQuery()
+                    .filter(QueryBuilders.termQuery("status", QueryTemplate.param("status")))
+                    .filter(QueryBuilders.rangeQuery("age").gt(QueryTemplate.param("minAge")))));
+    private final Map<String, Object> parameters = ImmutableMap.of("status", "active", "minAge", 22);
+
+    @Benchmark
+    public byte[] searchSourceBuilder() {
+        final SearchSourceBuilder source = src()
+                .size(20)
+                .query(QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.termQuery("status", "active"))
+                        .filter(QueryBuilders.rangeQuery("age").gt(22)));
+        return Strings.toString(source).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] queryTemplate() {
+        return this.template.render(this.parameters);
+    }
+
+}
@@ -20,7 +20,9 @@ import assets.*;
 import io.github.ss3rg3.elsa.ElsaClient;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
 import io.github.ss3rg3.elsa.model.IndexConfig;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.flush.FlushRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.core.TimeValue;
@@ -31,11 +33,19 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static assets.TestHelpers.TEST_CLUSTER_HOSTS;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class AsyncCrudDAOTest {
 
@@ -123,6 +133,64 @@ public class AsyncCrudDAOTest {
         assertThat(deletedResult, nullValue());
     }
 
+    @Test
+    public void futureChain_indexGetSearchUpdateDelete_pass() throws Exception {
+        final FakerModelAsync model = new FakerModelAsync();
+        model.setId("future");
+        model.setName("Future Smith");
+
+        // Index, then get
+        final FakerModelAsync indexed = crudDAO.indexFuture(model)
+                .thenCompose(response -> crudDAO.getFuture(response.getId()))
+                .get(5, TimeUnit.SECONDS);
+        assertThat(indexed.getName(), is("Future Smith"));
+
+        // Search
+        elsa.client.indices().refresh(new RefreshRequest(newIndexConfig.getIndexName()), RequestOptions.DEFAULT);
+        final SearchRequest searchRequest = new SearchRequest()
+                .indices(newIndexConfig.getIndexName())
+                .source(SearchSourceBuilder.searchSource()
+                        .query(QueryBuilders.idsQuery().addIds("future")));
+        final List<FakerModelAsync> hits = crudDAO.searchFuture(searchRequest).get(5, TimeUnit.SECONDS);
+        assertThat(hits.size(), is(1));
+        assertThat(hits.get(0).getId(), is("future"));
+
+        // Update, delete
+        model.setName("Future Jane");
+        crudDAO.updateFuture(model)
+                .thenCompose(response -> crudDAO.deleteFuture(model))
+                .get(5, TimeUnit.SECONDS);
+        assertThat(crudDAO.getFuture("future").get(5, TimeUnit.SECONDS), nullValue());
+    }
+
+    @Test
+    public void future_updateNonExistingDocument_failsWithElsaException() throws InterruptedException, TimeoutException {
+        final FakerModelAsync model = new FakerModelAsync();
+        model.setId("nonExistingId");
+        try {
+            crudDAO.updateFuture(model).get(5, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch (final ExecutionException e) {
+            assertThat(e.getCause() instanceof ElsaException, is(true));
+            assertThat(((ElsaException) e.getCause()).getHttpStatus(), is(404));
+        }
+    }
+
+    @Test
+    public void callbackExecutor_listenerIsNotCalledOnIoThread() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "elsa-callback"));
+        final CrudDAO<FakerModelAsync> dao = elsa.createDAO(new DaoConfig(CrudDAO.class, newIndexConfig)
+                .callbackExecutor(executor));
+        final CompletableFuture<String> threadName = new CompletableFuture<>();
+
+        dao.getAsync("nonExistingId", RequestOptions.DEFAULT, ActionListener.wrap(
+                response -> threadName.complete(Thread.currentThread().getName()),
+                threadName::completeExceptionally));
+
+        assertThat(threadName.get(5, TimeUnit.SECONDS), is("elsa-callback"));
+        executor.shutdown();
+    }
+
     private void sleep(final int ms) {
         try {
             Thread.sleep(ms);
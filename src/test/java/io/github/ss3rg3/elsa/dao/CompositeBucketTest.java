@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class CompositeBucketTest {
+
+    @Test
+    public void fromJson_keyDocCountAndMetrics() {
+        final String json = "{\"key\":{\"tag\":\"a\",\"day\":1546300800000},\"doc_count\":7," +
+                "\"avg_age\":{\"value\":22.5},\"max_age\":{\"value\":null},\"top\":{\"hits\":[]}}";
+
+        final CompositeBucket bucket = new Gson().fromJson(json, CompositeBucket.class);
+
+        assertThat(bucket.getKey("tag"), is("a"));
+        assertThat(bucket.getKey("day"), is(1546300800000L));
+        assertThat(bucket.getDocCount(), is(7L));
+        assertThat(bucket.getMetric("avg_age"), is(22.5));
+        assertThat(bucket.getMetric("max_age"), nullValue());
+        assertThat(bucket.getMetrics().size(), is(1));
+    }
+
+    @Test
+    public void toJson_roundTrips() {
+        final String json = "{\"key\":{\"tag\":\"a\",\"day\":1546300800000},\"doc_count\":7,\"avg_age\":{\"value\":22.5}}";
+        final Gson gson = new Gson();
+
+        final CompositeBucket bucket = gson.fromJson(json, CompositeBucket.class);
+
+        assertThat(gson.toJson(bucket), is(json));
+        final CompositeBucket read = gson.fromJson(gson.toJson(bucket), CompositeBucket.class);
+        assertThat(read.getKey(), is(bucket.getKey()));
+        assertThat(read.getDocCount(), is(bucket.getDocCount()));
+        assertThat(read.getMetrics(), is(bucket.getMetrics()));
+    }
+
+}
@@ -22,15 +22,25 @@ import assets.TestModel;
 import io.github.ss3rg3.elsa.ElsaClient;
 import io.github.ss3rg3.elsa.exceptions.ElsaElasticsearchException;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.reindexer.ReindexOptions.Conflicts;
+import io.github.ss3rg3.elsa.responses.ByQueryResponse;
+import io.github.ss3rg3.elsa.responses.TaskResponse;
+import org.apache.http.HttpHost;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.script.Script;
 import org.junit.*;
 import org.junit.runners.MethodSorters;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
 
 import static assets.TestHelpers.TEST_CLUSTER_HOSTS;
 import static org.elasticsearch.index.query.QueryBuilders.matchQuery;
@@ -165,12 +175,181 @@ public class CrudDAOTest {
         assertThat(response.getId(), is(id));
     }
 
+    @Test
+    public void get_withIncludes_onlyIncludedFields() throws ElsaException {
+        this.indexTestModelWithCustomId();
+
+        final TestModel model = this.testDAO.get(id, "stringField");
+        assertThat(model.getId(), is(id));
+        assertThat(model.getStringField(), is("modelWithId"));
+        assertThat(model.getArrayField(), nullValue());
+
+        final StringFieldProjection projection = this.testDAO.get(id, StringFieldProjection.class, "stringField");
+        assertThat(projection.stringField, is("modelWithId"));
+        assertThat(this.testDAO.get("nonExistingId", StringFieldProjection.class, "stringField"), nullValue());
+    }
+
+    private static class StringFieldProjection {
+        private String stringField;
+    }
+
+    @Test
+    public void exists_existingAndMissing_pass() throws ElsaException {
+        this.indexTestModelWithCustomId();
+        assertThat(this.testDAO.exists(id), is(true));
+        assertThat(this.testDAO.exists("nonExistingId"), is(false));
+        assertThat(this.testDAO.existsFuture(id).join(), is(true));
+    }
+
+    @Test
+    public void existsAll_chunked_bitsAlignedWithIds() throws ElsaException {
+        this.indexTestModelWithCustomId();
+        final TestDAO chunkingDAO = elsa.createDAO(new DaoConfig(TestDAO.class, TestModel.indexConfig)
+                .multiGetChunkSize(2));
+        final BitSet exists = chunkingDAO.existsAll(Arrays.asList("missing1", id, "missing2", "missing3", id));
+        assertThat(exists.toString(), is("{1, 4}"));
+    }
+
     @Test
     public void get_nonExistingDocument_nullResult() throws ElsaException {
         final TestModel newDoc = this.testDAO.get("nonExistingId");
         assertThat(newDoc, nullValue());
     }
 
+    @Test
+    public void getAll_chunkedWithMissingIds_orderIsKept() throws ElsaException {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final TestModel model = new TestModel();
+            model.setId("getAll_" + i);
+            model.setIntegerField(i);
+            this.testDAO.index(model);
+            ids.add(model.getId());
+        }
+        ids.add(2, "nonExistingId");
+
+        final TestDAO chunkingDAO = elsa.createDAO(new DaoConfig(TestDAO.class, TestModel.indexConfig)
+                .multiGetChunkSize(2));
+        final List<TestModel> models = chunkingDAO.getAll(ids);
+        assertThat(chunkingDAO.buildMultiGetRequests(ids).size(), is(3));
+        assertThat(models.size(), is(6));
+        assertThat(models.get(2), nullValue());
+        assertThat(models.get(0).getId(), is("getAll_0"));
+        assertThat(models.get(3).getIntegerField(), is(2));
+        assertThat(models.get(5).getId(), is("getAll_4"));
+    }
+
+    @Test
+    public void getAll_emptyIds_emptyResult() throws ElsaException {
+        assertThat(this.testDAO.getAll(Collections.emptyList()).size(), is(0));
+    }
+
+    @Test
+    public void bulk_indexUpdateDelete_itemsAreLinkedToModels() throws ElsaException {
+        final TestDAO batchingDAO = elsa.createDAO(new DaoConfig(TestDAO.class, TestModel.indexConfig)
+                .bulkMaxActions(2));
+        final List<TestModel> models = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final TestModel model = new TestModel();
+            model.setIntegerField(i);
+            models.add(model);
+        }
+
+        final BulkResult<TestModel> indexResult = batchingDAO.indexAll(models);
+        assertThat(indexResult.hasFailures(), is(false));
+        assertThat(indexResult.getBatches(), is(3));
+        assertThat(indexResult.getItems().size(), is(5));
+        for (final BulkResult.Item<TestModel> item : indexResult.getItems()) {
+            assertThat(item.getModel().getId(), is(item.getResponse().getId()));
+        }
+
+        models.forEach(model -> model.setStringField("bulkUpdated"));
+        final BulkResult<TestModel> updateResult = batchingDAO.updateAll(models);
+        assertThat(updateResult.hasFailures(), is(false));
+        assertThat(this.testDAO.get(models.get(4).getId()).getStringField(), is("bulkUpdated"));
+
+        final BulkResult<TestModel> deleteResult = batchingDAO.deleteAll(models);
+        assertThat(deleteResult.hasFailures(), is(false));
+        assertThat(this.testDAO.get(models.get(0).getId()), nullValue());
+    }
+
+    @Test
+    public void bulk_batchesFail_itemsFailedInsteadOfThrowing() throws ElsaException {
+        final ElsaClient unreachable = new ElsaClient(c -> c
+                .setClusterNodes(new HttpHost[]{new HttpHost("127.0.0.1", 1, "http")})
+                .createIndexesAndEnsureMappingConsistency(false));
+        final CrudDAO<TestModel> dao = unreachable.createDAO(new DaoConfig(CrudDAO.class, TestModel.indexConfig)
+                .bulkMaxActions(2));
+        final List<TestModel> models = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            models.add(new TestModel());
+        }
+
+        final BulkResult<TestModel> result = dao.indexAll(models);
+        assertThat(result.hasFailures(), is(true));
+        assertThat(result.getBatches(), is(3));
+        assertThat(result.getBatchFailures().size(), is(3));
+        assertThat(result.getFailedItems().size(), is(5));
+        assertThat(result.getItems().get(4).getModel(), is(models.get(4)));
+    }
+
+    @Test
+    public void byQuery_updateAsTaskThenDelete_pass() throws ElsaException {
+        final List<TestModel> models = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final TestModel model = new TestModel();
+            model.setStringField("byQuery");
+            models.add(model);
+        }
+        this.testDAO.indexAll(models);
+        // Wait for indexing
+        TestHelpers.sleep(1000);
+
+        final String taskId = this.testDAO.submitUpdateByQuery(new ByQuerySettings(matchQuery("stringField", "byQuery"))
+                .script(new Script("ctx._source.integerField = 42"))
+                .conflicts(Conflicts.PROCEED)
+                .slicesAuto()
+                .refresh(true));
+        final List<TaskResponse> polled = new ArrayList<>();
+        final ByQueryResponse updated = this.testDAO.awaitTask(taskId, TimeValue.timeValueMillis(100),
+                TimeValue.timeValueMinutes(1), polled::add);
+        assertThat(updated.getUpdated(), is(5L));
+        assertThat(polled.get(polled.size() - 1).getCompleted(), is(true));
+        assertThat(this.testDAO.get(models.get(0).getId()).getIntegerField(), is(42));
+
+        final ByQueryResponse deleted = this.testDAO.deleteByQuery(new ByQuerySettings(matchQuery("stringField", "byQuery"))
+                .requestsPerSecond(1000)
+                .refresh(true));
+        assertThat(deleted.getDeleted(), is(5L));
+        assertThat(this.testDAO.exists(models.get(0).getId()), is(false));
+    }
+
+    @Test
+    public void bulk_updateNonExistingDocument_failedItem() throws ElsaException {
+        final BulkResult<TestModel> result = this.testDAO.updateAll(Collections.singletonList(testModelWithId));
+        assertThat(result.hasFailures(), is(true));
+        assertThat(result.getFailedItems().get(0).getModel(), is(testModelWithId));
+    }
+
+    @Test
+    public void documentCache_getUpdateGet_cachedAndInvalidated() throws ElsaException {
+        final DocumentCache cache = new DocumentCache(100, TimeValue.timeValueMinutes(1));
+        final TestDAO cachingDAO = elsa.createDAO(new DaoConfig(TestDAO.class, TestModel.indexConfig)
+                .documentCache(cache));
+        cachingDAO.index(testModelWithId);
+
+        final TestModel first = cachingDAO.get(id);
+        final TestModel second = cachingDAO.get(id);
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(first == second, is(false));
+
+        second.setStringField("updatedViaCachingDAO");
+        cachingDAO.update(second);
+        assertThat(cache.size(), is(0L));
+        assertThat(cachingDAO.get(id).getStringField(), is("updatedViaCachingDAO"));
+    }
+
     @Test
     public void delete_newDocument_pass() throws ElsaException {
         assertThat(this.indexTestModelWithCustomId().getResult().name(), is("CREATED"));
@@ -210,6 +389,70 @@ public class CrudDAOTest {
         assertThat(testModel1.getStringField(), is("partial update"));
     }
 
+    @Test
+    public void updateFields_setAndIncrement_otherFieldsUnchanged() throws ElsaException {
+        this.indexTestModelWithCustomId();
+        final String stringField = this.testDAO.get(id).getStringField();
+
+        this.testDAO.updateFields(id, Collections.singletonMap("arrayField", Arrays.asList("a", "b")));
+        this.testDAO.increment(id, "integerField", 5);
+        this.testDAO.updateFields(new PartialUpdate(id).set("arrayField", Collections.singletonList("c")).increment("integerField", 2));
+
+        final TestModel model = this.testDAO.get(id);
+        assertThat(model.getStringField(), is(stringField));
+        assertThat(model.getArrayField(), is(Collections.singletonList("c")));
+        assertThat(model.getIntegerField(), is(1234 + 7));
+    }
+
+    @Test
+    public void updateFieldsAll_withRetryOnConflict_pass() throws ElsaException {
+        this.indexTestModelWithCustomId();
+        final BulkResult<PartialUpdate> result = this.testDAO.updateFieldsAll(Arrays.asList(
+                new PartialUpdate(id).increment("integerField", 1).retryOnConflict(3),
+                new PartialUpdate("nonExistingId").set("stringField", "x")));
+
+        assertThat(result.getItems().get(0).isFailed(), is(false));
+        assertThat(result.getItems().get(1).isFailed(), is(true));
+        assertThat(this.testDAO.get(id).getIntegerField(), is(1234 + 1));
+    }
+
+    @Test
+    public void upsert_missingThenExisting_createdThenUpdated() throws ElsaException {
+        final TestModel model = new TestModel();
+        model.setId(id);
+        model.setStringField("inserted");
+        assertThat(this.testDAO.upsert(model).getResult().name(), is("CREATED"));
+
+        model.setStringField("upserted");
+        assertThat(this.testDAO.upsert(model).getResult().name(), is("UPDATED"));
+        assertThat(this.testDAO.get(id).getStringField(), is("upserted"));
+    }
+
+    @Test
+    public void upsertFields_counter_insertedThenIncremented() throws ElsaException {
+        final TestModel model = new TestModel();
+        model.setId(id);
+        model.setIntegerField(1);
+        this.testDAO.upsertFields(new PartialUpdate(id).increment("integerField", 1), model);
+        assertThat(this.testDAO.get(id).getIntegerField(), is(1));
+
+        this.testDAO.upsertFields(new PartialUpdate(id).increment("integerField", 1), model);
+        assertThat(this.testDAO.get(id).getIntegerField(), is(2));
+    }
+
+    @Test
+    public void upsertAll_existingAndNew_noFailures() throws ElsaException {
+        this.indexTestModelWithCustomId();
+        final TestModel newModel = new TestModel();
+        newModel.setId("upsertedId");
+        newModel.setStringField("new");
+
+        final BulkResult<TestModel> result = this.testDAO.upsertAll(Arrays.asList(testModelWithId, newModel));
+        assertThat(result.hasFailures(), is(false));
+        assertThat(this.testDAO.get("upsertedId").getStringField(), is("new"));
+        this.testDAO.delete(newModel);
+    }
+
     @Test
     public void update_nonExistingDocument_throw() throws ElsaException {
         try {
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class GetBatcherTest {
+
+    private final List<MultiGetRequest> sent = new ArrayList<>();
+
+    /**
+     * Answers every _mget with "not found" for each requested ID.
+     */
+    private CompletableFuture<MultiGetResponse> respond(final MultiGetRequest request) {
+        this.sent.add(request);
+        final MultiGetItemResponse[] items = request.getItems().stream()
+                .map(item -> new MultiGetItemResponse(new GetResponse(new GetResult(item.index(), "_doc", item.id(),
+                        SequenceNumbers.UNASSIGNED_SEQ_NO, 0, -1, false, null, null, null)), null))
+                .toArray(MultiGetItemResponse[]::new);
+        return CompletableFuture.completedFuture(new MultiGetResponse(items));
+    }
+
+    @Test
+    public void maxBatchSizeReached_sentImmediately() {
+        final GetBatcher batcher = new GetBatcher("index", TimeValue.timeValueHours(1), 3, this::respond);
+        final CompletableFuture<GetResponse> first = batcher.submit("1");
+        batcher.submit("2");
+        assertThat(this.sent.size(), is(0));
+        final CompletableFuture<GetResponse> third = batcher.submit("3");
+
+        assertThat(this.sent.size(), is(1));
+        assertThat(this.sent.get(0).getItems().size(), is(3));
+        assertThat(first.join().getId(), is("1"));
+        assertThat(third.join().getId(), is("3"));
+        assertThat(batcher.getBatchCount(), is(1L));
+        assertThat(batcher.getGetCount(), is(3L));
+    }
+
+    @Test
+    public void windowPassed_sentByScheduler() throws Exception {
+        final GetBatcher batcher = new GetBatcher("index", TimeValue.timeValueMillis(10), 100, this::respond);
+        final CompletableFuture<GetResponse> first = batcher.submit("1");
+        final CompletableFuture<GetResponse> second = batcher.submit("2");
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getId(), is("1"));
+        assertThat(second.get(5, TimeUnit.SECONDS).isExists(), is(false));
+        assertThat(batcher.getBatchCount(), is(1L));
+    }
+
+    @Test
+    public void requestFailed_allGetsFailWithElsaException() {
+        final GetBatcher batcher = new GetBatcher("index", TimeValue.timeValueHours(1), 2, request -> {
+            final CompletableFuture<MultiGetResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("failed"));
+            return future;
+        });
+        final CompletableFuture<GetResponse> first = batcher.submit("1");
+        final CompletableFuture<GetResponse> second = batcher.submit("2");
+
+        for (final CompletableFuture<GetResponse> future : new CompletableFuture[]{first, second}) {
+            try {
+                future.join();
+                fail("Expected failure");
+            } catch (final CompletionException e) {
+                assertThat(e.getCause(), instanceOf(ElsaException.class));
+            }
+        }
+    }
+
+    @Test
+    public void routingRequired_routedGetsSentWithRouting() {
+        final GetBatcher batcher = new GetBatcher("index", true, TimeValue.timeValueHours(1), 2, this::respond);
+        try {
+            batcher.submit("1");
+            fail("Expected failure");
+        } catch (final IllegalStateException e) {
+            assertThat(e.getMessage().contains("Routing is required"), is(true));
+        }
+
+        batcher.submit("1", "a");
+        batcher.submit("2", "b");
+
+        assertThat(this.sent.size(), is(1));
+        assertThat(this.sent.get(0).getItems().get(0).routing(), is("a"));
+        assertThat(this.sent.get(0).getItems().get(1).routing(), is("b"));
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RequestCoalescerTest {
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final AtomicInteger sentRequests = new AtomicInteger();
+    private final CompletableFuture<String> response = new CompletableFuture<>();
+
+    private CompletableFuture<String> send() {
+        this.sentRequests.incrementAndGet();
+        return this.response;
+    }
+
+    @Test
+    public void identicalRequestsInFlight_sentOnce() {
+        final CompletableFuture<String> first = this.coalescer.execute("key", this::send);
+        final CompletableFuture<String> second = this.coalescer.execute("key", this::send);
+        assertThat(this.sentRequests.get(), is(1));
+        assertThat(this.coalescer.getInFlightCount(), is(1));
+        assertThat(this.coalescer.getCoalescedCount(), is(1L));
+
+        this.response.complete("response");
+        assertThat(first.join(), is("response"));
+        assertThat(second.join(), is("response"));
+        assertThat(first == second, is(false));
+        assertThat(this.coalescer.getInFlightCount(), is(0));
+    }
+
+    @Test
+    public void differentKeysOrCompletedRequest_sentAgain() {
+        this.coalescer.execute("key", this::send);
+        this.coalescer.execute("otherKey", this::send);
+        assertThat(this.sentRequests.get(), is(2));
+
+        this.response.completeExceptionally(new IllegalStateException("failed"));
+        final CompletableFuture<String> afterFailure = this.coalescer.execute("key", this::send);
+        assertThat(this.sentRequests.get(), is(3));
+        assertThat(afterFailure.isCompletedExceptionally(), is(true));
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import io.github.ss3rg3.elsa.dao.RequestLimiter.Mode;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RequestLimiterTest {
+
+    /**
+     * Keeps the listeners of "sent" requests, so the test decides when they complete.
+     */
+    private final List<ActionListener<String>> inFlight = new ArrayList<>();
+
+    private CompletableFuture<String> send(final RequestLimiter limiter) {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        limiter.executeAsync(this.inFlight::add, ActionListener.wrap(future::complete, future::completeExceptionally));
+        return future;
+    }
+
+    @Test
+    public void failFast_limitReached_rejectedWith429() {
+        final RequestLimiter limiter = new RequestLimiter(2, Mode.FAIL_FAST);
+        this.send(limiter);
+        this.send(limiter);
+        final CompletableFuture<String> rejected = this.send(limiter);
+
+        assertThat(this.inFlight.size(), is(2));
+        assertThat(limiter.getAvailablePermits(), is(0));
+        assertThat(rejected.isCompletedExceptionally(), is(true));
+        try {
+            limiter.execute(() -> "sync");
+            fail("Expected rejection");
+        } catch (final ElasticsearchStatusException e) {
+            assertThat(e.status(), is(RestStatus.TOO_MANY_REQUESTS));
+        } catch (final Exception e) {
+            fail("Unexpected exception " + e);
+        }
+
+        this.inFlight.get(0).onResponse("done");
+        assertThat(limiter.getAvailablePermits(), is(1));
+    }
+
+    @Test
+    public void queue_limitReached_queuedRequestIsSentOnRelease() {
+        final RequestLimiter limiter = new RequestLimiter(1, Mode.QUEUE, 1);
+        final CompletableFuture<String> first = this.send(limiter);
+        final CompletableFuture<String> second = this.send(limiter);
+        final CompletableFuture<String> rejected = this.send(limiter);
+
+        assertThat(this.inFlight.size(), is(1));
+        assertThat(limiter.getQueueDepth(), is(1));
+        assertThat(rejected.isCompletedExceptionally(), is(true));
+
+        this.inFlight.get(0).onResponse("first");
+        assertThat(first.join(), is("first"));
+        assertThat(this.inFlight.size(), is(2));
+        assertThat(limiter.getQueueDepth(), is(0));
+        assertThat(limiter.getInFlight(), is(1));
+
+        this.inFlight.get(1).onFailure(new IllegalStateException("second failed"));
+        assertThat(second.isCompletedExceptionally(), is(true));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void block_limitAndQueueSizeReached_queuedInsteadOfRejected() {
+        final RequestLimiter limiter = new RequestLimiter(1, Mode.BLOCK, 1);
+        this.send(limiter);
+        final CompletableFuture<String> second = this.send(limiter);
+        final CompletableFuture<String> third = this.send(limiter);
+
+        assertThat(this.inFlight.size(), is(1));
+        assertThat(limiter.getQueueDepth(), is(2));
+        assertThat(second.isCompletedExceptionally(), is(false));
+        assertThat(third.isCompletedExceptionally(), is(false));
+
+        this.inFlight.get(0).onResponse("first");
+        this.inFlight.get(1).onResponse("second");
+        assertThat(third.isDone(), is(false));
+        assertThat(this.inFlight.size(), is(3));
+        assertThat(limiter.getQueueDepth(), is(0));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructor_modeNull_throws() {
+        new RequestLimiter(1, null);
+    }
+
+    @Test(timeout = 5000)
+    public void block_asyncCallFromCallbackWhileSaturated_queuedInsteadOfBlocking() {
+        final RequestLimiter limiter = new RequestLimiter(2, Mode.BLOCK);
+        final CompletableFuture<String> first = this.send(limiter);
+        this.send(limiter);
+
+        final List<CompletableFuture<String>> chained = new ArrayList<>();
+        first.thenRun(() -> {
+            chained.add(this.send(limiter));
+            chained.add(this.send(limiter));
+        });
+        this.inFlight.get(0).onResponse("first");
+
+        assertThat(chained.size(), is(2));
+        assertThat(this.inFlight.size(), is(3));
+        assertThat(limiter.getQueueDepth(), is(1));
+
+        this.inFlight.get(1).onResponse("second");
+        assertThat(this.inFlight.size(), is(4));
+        assertThat(limiter.getQueueDepth(), is(0));
+        assertThat(limiter.getInFlight(), is(2));
+    }
+
+    @Test
+    public void listenerCalledTwice_permitIsReleasedOnce() {
+        final RequestLimiter limiter = new RequestLimiter(2, Mode.BLOCK);
+        this.send(limiter);
+        this.send(limiter);
+        this.inFlight.get(0).onResponse("done");
+        this.inFlight.get(0).onFailure(new IllegalStateException());
+        assertThat(limiter.getAvailablePermits(), is(1));
+    }
+
+}
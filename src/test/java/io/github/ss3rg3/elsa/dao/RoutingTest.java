@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.dao;
+
+import assets.RoutedModel;
+import assets.TestHelpers;
+import io.github.ss3rg3.elsa.ElsaClient;
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.helpers.Search;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static assets.TestHelpers.TEST_CLUSTER_HOSTS;
+import static io.github.ss3rg3.elsa.helpers.Search.src;
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RoutingTest {
+
+    private static final ElsaClient elsa = new ElsaClient(c -> c
+            .setClusterNodes(TEST_CLUSTER_HOSTS)
+            .registerDAO(new DaoConfig(CrudDAO.class, RoutedModel.indexConfig))
+            .createIndexesAndEnsureMappingConsistency(false));
+    private static final CrudDAO<RoutedModel> dao = elsa.getDAO(RoutedModel.class);
+
+    @BeforeClass
+    public static void setup() throws ElsaException {
+        elsa.admin.createIndex(RoutedModel.indexConfig);
+    }
+
+    @AfterClass
+    public static void teardown() throws ElsaException {
+        elsa.admin.deleteIndex(RoutedModel.indexConfig);
+    }
+
+    @Test
+    public void crudAndSearch_routingFromModel_pass() throws ElsaException {
+        final BulkResult<RoutedModel> result = dao.indexAll(Arrays.asList(
+                new RoutedModel("1", "tenantA", "first"),
+                new RoutedModel("2", "tenantB", "second")));
+        assertThat(result.hasFailures(), is(false));
+        assertThat(result.getItems().get(0).getResponse().getResponse().getShardId(), notNullValue());
+
+        assertThat(dao.getRouted("1", "tenantA").getText(), is("first"));
+        TestHelpers.sleep(1000);
+
+        final List<RoutedModel> hits = dao.searchRoutedAndMapToList(Search.req()
+                .indices(RoutedModel.indexConfig.getIndexName())
+                .source(src().query(termQuery("tenant", "tenantA"))), "tenantA");
+        assertThat(hits.size(), is(1));
+        assertThat(hits.get(0).getId(), is("1"));
+
+        dao.delete(new RoutedModel("1", "tenantA", null));
+        assertThat(dao.getRouted("1", "tenantA"), nullValue());
+    }
+
+    @Test
+    public void index_routingRequiredButMissing_throw() throws ElsaException {
+        try {
+            dao.index(new RoutedModel("3", null, "no tenant"));
+            fail("Expected exception");
+        } catch (final IllegalStateException e) {
+            assertThat(e.getMessage().contains("Routing is required"), is(true));
+        }
+    }
+
+}
@@ -18,17 +18,37 @@ package io.github.ss3rg3.elsa.dao;
 
 import assets.FakerModel;
 import assets.TestHelpers;
+import com.google.common.collect.ImmutableMap;
 import io.github.ss3rg3.elsa.ElsaClient;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import io.github.ss3rg3.elsa.helpers.QueryTemplate;
 import io.github.ss3rg3.elsa.helpers.Search;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.asyncsearch.SubmitAsyncSearchRequest;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static assets.TestHelpers.TEST_CLUSTER_HOSTS;
 import static io.github.ss3rg3.elsa.helpers.Search.src;
@@ -37,6 +57,7 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class SearchDAOTest {
 
@@ -115,4 +136,200 @@ public class SearchDAOTest {
         assertThat(dao.searchAndMapToStream(this.request)
                 .count(), greaterThan(0L));
     }
+
+    @Test
+    public void streamAll_severalPages_allHitsOnce() throws ElsaException {
+        final SearchRequest all = Search.req()
+                .indices(FakerModel.indexConfig.getIndexName())
+                .source(src().size(100));
+        try (Stream<FakerModel> stream = dao.streamAll(all)) {
+            final Set<String> ids = stream.map(FakerModel::getId).collect(Collectors.toSet());
+            assertThat(ids.size(), is(1000));
+        }
+
+        try (Stream<FakerModel> stream = dao.streamAll(this.request)) {
+            assertThat(stream.limit(5).count(), is(5L));
+        }
+    }
+
+    @Test
+    public void count_matchesTotalHits() throws ElsaException {
+        final QueryBuilder query = QueryBuilders.rangeQuery("age").gt(22).lt(33);
+        final SearchResponse response = dao.search(Search.req()
+                .indices(FakerModel.indexConfig.getIndexName())
+                .source(src().size(0).trackTotalHits(true).query(query)));
+
+        assertThat(dao.count(query), is(SearchResponseMapper.getTotalHits(response)));
+        assertThat(dao.countFuture(QueryBuilders.matchAllQuery()).join(), is(1000L));
+    }
+
+    @Test
+    public void searchAndMapToList_projection_onlyIncludedFields() throws ElsaException {
+        final List<NameAndAge> list = dao.searchAndMapToList(this.request, NameAndAge.class,
+                new FetchSourceContext(true, new String[]{"name", "age"}, null));
+        assertThat(list.size(), greaterThan(1));
+        for (final NameAndAge projection : list) {
+            assertThat(projection.name, notNullValue());
+            assertThat(projection.age, greaterThan(22));
+            assertThat(projection.biography, nullValue());
+        }
+    }
+
+    private static class NameAndAge {
+        private String name;
+        private int age;
+        private String biography;
+    }
+    @Test
+    public void multiSearch_oneFails_othersMappedInOrder() throws ElsaException {
+        final SearchRequest missingIndexRequest = Search.req()
+                .indices("index_does_not_exist")
+                .source(src().query(QueryBuilders.matchAllQuery()));
+        final SearchRequest noResultsRequest = Search.req()
+                .indices(FakerModel.indexConfig.getIndexName())
+                .source(src().query(QueryBuilders.rangeQuery("age").gt(111)));
+
+        final MultiSearchResult<FakerModel> result = dao.multiSearch(Arrays.asList(this.request, missingIndexRequest, noResultsRequest));
+        assertThat(result.getItems().size(), is(3));
+        assertThat(result.get(0).getHits().size(), is(3));
+        assertThat(result.get(0).getHits().get(0).getId(), notNullValue());
+        assertThat(result.get(1).isFailed(), is(true));
+        assertThat(result.get(2).getHits().size(), is(0));
+        assertThat(result.getFailedItems().size(), is(1));
+    }
+
+    @Test
+    public void multiSearchCollector_sentOnClose() throws Exception {
+        final CompletableFuture<List<FakerModel>> first;
+        final CompletableFuture<List<FakerModel>> second;
+        try (MultiSearchCollector<FakerModel> collector = dao.multiSearchCollector()) {
+            first = collector.add(this.request);
+            second = collector.add(this.request);
+            assertThat(collector.size(), is(2));
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS).size(), is(3));
+        assertThat(second.get(5, TimeUnit.SECONDS).size(), is(3));
+    }
+
+    @Test
+    public void search_queryTemplate_sameHitsAsSearchRequest() throws ElsaException {
+        final QueryTemplate template = QueryTemplate.compile(src()
+                .size(3)
+                .query(QueryBuilders.rangeQuery("age")
+                        .gt(QueryTemplate.param("min"))
+                        .lt(QueryTemplate.param("max"))));
+
+        final List<FakerModel> list = dao.searchAndMapToList(template, ImmutableMap.of("min", 22, "max", 33));
+        assertThat(list.size(), is(3));
+        for (final FakerModel fakerModel : list) {
+            assertThat(fakerModel.getAge() > 22 && fakerModel.getAge() < 33, is(true));
+        }
+    }
+
+    @Test
+    public void searchResultCache_invalidatedByWrite() throws ElsaException {
+        final SearchResultCache cache = new SearchResultCache(ByteSizeValue.ofMb(10), TimeValue.timeValueMinutes(1));
+        final CrudDAO<FakerModel> cachingDao = elsa.createDAO(new DaoConfig(CrudDAO.class, FakerModel.indexConfig)
+                .searchResultCache(cache));
+
+        final SearchResponse first = cachingDao.search(this.request);
+        assertThat(cachingDao.search(this.request) == first, is(true));
+        assertThat(cache.getHitCount(), is(1L));
+
+        cachingDao.index(FakerModel.createModelWithRandomData());
+        assertThat(cachingDao.search(this.request) == first, is(false));
+        assertThat(cache.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void streamCompositeBuckets_severalPages_allDocsCounted() throws ElsaException {
+        final CompositeAggregationBuilder composite = AggregationBuilders.composite("ages",
+                Collections.singletonList(new TermsValuesSourceBuilder("age").field("age")))
+                .size(5)
+                .subAggregation(AggregationBuilders.avg("avg_age").field("age"));
+
+        final List<CompositeBucket> buckets = dao.streamCompositeBuckets(QueryBuilders.matchAllQuery(), composite)
+                .collect(Collectors.toList());
+
+        assertThat(buckets.size(), greaterThan(5));
+        assertThat(buckets.stream().mapToLong(CompositeBucket::getDocCount).sum(), is(dao.count(QueryBuilders.matchAllQuery())));
+        for (final CompositeBucket bucket : buckets) {
+            assertThat(((Number) bucket.getKey("age")).doubleValue(), is(bucket.getMetric("avg_age")));
+        }
+    }
+
+    @Test
+    public void streamCompositeBuckets_stoppedEarly_prefetchCancelledOnClose() {
+        final RequestLimiter limiter = new RequestLimiter(1, RequestLimiter.Mode.FAIL_FAST);
+        final CrudDAO<FakerModel> limitedDao = elsa.createDAO(new DaoConfig(CrudDAO.class, FakerModel.indexConfig)
+                .requestLimiter(limiter));
+        final CompositeAggregationBuilder composite = AggregationBuilders.composite("ages",
+                Collections.singletonList(new TermsValuesSourceBuilder("age").field("age")))
+                .size(1);
+
+        try (Stream<CompositeBucket> buckets = limitedDao.streamCompositeBuckets(QueryBuilders.matchAllQuery(), composite)) {
+            assertThat(buckets.findFirst().isPresent(), is(true));
+        }
+        // The cancelled request releases its permit on the I/O thread
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (limiter.getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void buildSubmitAsyncSearchRequest_settingsCopied_scrollRejected() {
+        final SearchRequest searchRequest = Search.req()
+                .source(src().size(3))
+                .requestCache(false)
+                .allowPartialSearchResults(false)
+                .searchType(SearchType.DFS_QUERY_THEN_FETCH)
+                .routing("r")
+                .preference("_local");
+        searchRequest.setBatchedReduceSize(10);
+        searchRequest.setMaxConcurrentShardRequests(2);
+
+        final SubmitAsyncSearchRequest request = dao.buildSubmitAsyncSearchRequest(searchRequest, null, TimeValue.timeValueMinutes(1));
+        assertThat(request.getIndices(), is(new String[]{FakerModel.indexConfig.getIndexName()}));
+        assertThat(request.getRequestCache(), is(false));
+        assertThat(request.getAllowPartialSearchResults(), is(false));
+        assertThat(request.getSearchType(), is(SearchType.DFS_QUERY_THEN_FETCH));
+        assertThat(request.getBatchedReduceSize(), is(10));
+        assertThat(request.getMaxConcurrentShardRequests(), is(2));
+        assertThat(request.getRouting(), is("r"));
+        assertThat(request.getPreference(), is("_local"));
+
+        try {
+            dao.buildSubmitAsyncSearchRequest(searchRequest.scroll(TimeValue.timeValueMinutes(1)), null, null);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            assertThat(e.getMessage().contains("scroll"), is(true));
+        }
+    }
+
+    @Test
+    public void asyncSearch_awaitedAndDeleted() throws ElsaException {
+        final AsyncSearchResult<FakerModel> submitted = dao.submitAsyncSearch(this.request,
+                TimeValue.timeValueMillis(0), TimeValue.timeValueMinutes(1), RequestOptions.DEFAULT);
+        assertThat(submitted.getId(), notNullValue());
+
+        final List<AsyncSearchResult<FakerModel>> polled = new ArrayList<>();
+        final AsyncSearchResult<FakerModel> result = dao.awaitAsyncSearch(submitted.getId(), TimeValue.timeValueSeconds(1),
+                TimeValue.timeValueMinutes(1), polled::add);
+        assertThat(result.isRunning(), is(false));
+        assertThat(result.getFailure(), nullValue());
+        assertThat(result.getHits().size(), is(this.request.source().size()));
+        assertThat(result.getHits().get(0).getId(), notNullValue());
+
+        assertThat(dao.deleteAsyncSearch(submitted.getId()), is(true));
+        try {
+            dao.getAsyncSearch(submitted.getId());
+            fail("Expected not found");
+        } catch (final ElsaException e) {
+            assertThat(e.getHttpStatus(), is(404));
+            assertThat(e.getCause().getMessage().contains("deleted or has expired"), is(true));
+        }
+    }
+
 }
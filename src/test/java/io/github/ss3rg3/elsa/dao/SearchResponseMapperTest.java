@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import assets.FakerModel;
+import io.github.ss3rg3.elsa.ElsaClient;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static assets.TestHelpers.TEST_CLUSTER_HOSTS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SearchResponseMapperTest {
+
+    private static final ElsaClient elsa = new ElsaClient(c -> c
+            .setClusterNodes(TEST_CLUSTER_HOSTS)
+            .createIndexesAndEnsureMappingConsistency(false));
+
+    @Test
+    public void mapHitsToList_parallel_hitOrderKept() {
+        final CrudDAO<FakerModel> dao = elsa.createDAO(new DaoConfig(CrudDAO.class, FakerModel.indexConfig)
+                .parallelHitMapping(100, Executors.newFixedThreadPool(4)));
+
+        final List<FakerModel> models = dao.getSearchResponseMapper().mapHitsToList(createResponse(1000));
+
+        assertThat(models.size(), is(1000));
+        for (int i = 0; i < models.size(); i++) {
+            assertThat(models.get(i).getId(), is(String.valueOf(i)));
+            assertThat(models.get(i).getAge(), is(i));
+        }
+    }
+
+    @Test
+    public void mapHitsToList_belowThreshold_sameResult() {
+        final CrudDAO<FakerModel> dao = elsa.createDAO(new DaoConfig(CrudDAO.class, FakerModel.indexConfig)
+                .parallelHitMapping(100));
+
+        final List<FakerModel> models = dao.getSearchResponseMapper().mapHitsToList(createResponse(99));
+
+        assertThat(models.size(), is(99));
+        assertThat(models.get(98).getId(), is("98"));
+    }
+
+    private static SearchResponse createResponse(final int hitCount) {
+        final SearchHit[] hits = new SearchHit[hitCount];
+        for (int i = 0; i < hitCount; i++) {
+            hits[i] = new SearchHit(i, String.valueOf(i), new Text("_doc"), Collections.emptyMap(), Collections.emptyMap())
+                    .sourceRef(new BytesArray("{\"name\":\"name" + i + "\",\"age\":" + i + "}"));
+        }
+        final SearchHits searchHits = new SearchHits(hits, new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO), 1);
+        return new SearchResponse(new InternalSearchResponse(searchHits, null, null, null, false, null, 1),
+                null, 1, 1, 0, 1L, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+    }
+
+}
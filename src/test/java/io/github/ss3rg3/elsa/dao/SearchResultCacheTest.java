@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.dao;
+
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.Scroll;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static io.github.ss3rg3.elsa.helpers.Search.req;
+import static io.github.ss3rg3.elsa.helpers.Search.src;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(ByteSizeValue.ofMb(1), TimeValue.timeValueMinutes(1));
+    private final IndexGenerations generations = new IndexGenerations();
+    private final SearchResponse response = new SearchResponse(InternalSearchResponse.empty(), null, 1, 1, 0, 1L,
+            ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+
+    @Test
+    public void sameGeneration_hit() {
+        final String key = SearchResultCache.key(req().indices("index").source(src().query(QueryBuilders.termQuery("a", "b"))));
+        assertThat(this.cache.get(key, this.generations.sum("index")), nullValue());
+        this.cache.put(key, this.generations.sum("index"), this.response);
+
+        assertThat(this.cache.get(key, this.generations.sum("index")), sameInstance(this.response));
+        assertThat(this.cache.getHitCount(), is(1L));
+        assertThat(this.cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void indexWrittenTo_miss() {
+        final String key = SearchResultCache.key(req().indices("index", "other"));
+        this.cache.put(key, this.generations.sum("index", "other"), this.response);
+        this.generations.increment("other");
+
+        assertThat(this.cache.get(key, this.generations.sum("index", "other")), nullValue());
+        assertThat(this.cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void key_differsBySourceAndIndex() {
+        final String key = SearchResultCache.key(req().indices("index").source(src().query(QueryBuilders.termQuery("a", "b"))));
+        assertThat(SearchResultCache.key(req().indices("index").source(src().query(QueryBuilders.termQuery("a", "c")))), not(key));
+        assertThat(SearchResultCache.key(req().indices("other").source(src().query(QueryBuilders.termQuery("a", "b")))), not(key));
+    }
+
+    @Test
+    public void isCacheable_onlyIndexOfDaoWithoutScroll() {
+        assertThat(SearchResultCache.isCacheable(req().indices("index"), "index"), is(true));
+        assertThat(SearchResultCache.isCacheable(req(), "index"), is(false));
+        assertThat(SearchResultCache.isCacheable(req().indices("ind*"), "index"), is(false));
+        assertThat(SearchResultCache.isCacheable(req().indices("index", "other"), "index"), is(false));
+        assertThat(SearchResultCache.isCacheable(req().indices("index").scroll(new Scroll(TimeValue.timeValueMinutes(1))), "index"), is(false));
+    }
+
+    @Test
+    public void estimateSizeInBytes_sourceBytesPlusOverhead() {
+        final SearchHit hit = new SearchHit(1, "1", new Text("_doc"), Collections.emptyMap(), Collections.emptyMap())
+                .sourceRef(new BytesArray("{\"text\":\"" + new String(new char[1000]).replace('\0', 'a') + "\"}"));
+        final SearchHits hits = new SearchHits(new SearchHit[]{hit}, new TotalHits(1, TotalHits.Relation.EQUAL_TO), 1);
+        final SearchResponse withHit = new SearchResponse(new InternalSearchResponse(hits, null, null, null, false, null, 1),
+                null, 1, 1, 0, 1L, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+
+        assertThat(SearchResultCache.estimateSizeInBytes(withHit) - SearchResultCache.estimateSizeInBytes(this.response) > 1000, is(true));
+    }
+
+}
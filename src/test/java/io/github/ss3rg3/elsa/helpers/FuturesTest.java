@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.ss3rg3.elsa.helpers;
+
+import com.google.gson.JsonSyntaxException;
+import io.github.ss3rg3.elsa.exceptions.ElsaException;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class FuturesTest {
+
+    @Test
+    public void mapping_mapperThrows_failsWithElsaException() {
+        final CompletableFuture<String> mapped = Futures.mapping(CompletableFuture.completedFuture("{"), json -> {
+            throw new JsonSyntaxException("Unterminated object");
+        });
+
+        try {
+            mapped.join();
+            fail("Expected failure");
+        } catch (final CompletionException e) {
+            assertThat(e.getCause(), instanceOf(ElsaException.class));
+        }
+    }
+
+    @Test
+    public void mapping_mapperSucceeds_mappedValue() {
+        assertThat(Futures.mapping(CompletableFuture.completedFuture("42"), Integer::valueOf).join(), is(42));
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.helpers;
+
+import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static io.github.ss3rg3.elsa.helpers.Search.src;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class QueryTemplateTest {
+
+    @Test
+    public void render_sameJsonAsSearchSourceBuilder() {
+        final QueryTemplate template = QueryTemplate.compile(src()
+                .size(20)
+                .query(QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.termQuery("status", QueryTemplate.param("status")))
+                        .filter(QueryBuilders.rangeQuery("age").gt(QueryTemplate.param("minAge")))));
+
+        final String rendered = new String(template.render(ImmutableMap.of("status", "active", "minAge", 22)), StandardCharsets.UTF_8);
+
+        final String expected = Strings.toString(src()
+                .size(20)
+                .query(QueryBuilders.boolQuery()
+                        .filter(QueryBuilders.termQuery("status", "active"))
+                        .filter(QueryBuilders.rangeQuery("age").gt(22))));
+        assertThat(rendered, is(expected));
+        assertThat(template.getParameterNames().size(), is(2));
+    }
+
+    @Test
+    public void render_jsonTemplate_valuesEscaped() {
+        final QueryTemplate template = QueryTemplate.compile("{\"size\":\"{{size}}\",\"query\":{\"terms\":{\"tag\":\"{{tags}}\"}}}");
+
+        final String rendered = new String(template.render(ImmutableMap.of(
+                "size", 5,
+                "tags", Arrays.asList("a\"b", "c\\d"))), StandardCharsets.UTF_8);
+
+        assertThat(rendered, is("{\"size\":5,\"query\":{\"terms\":{\"tag\":[\"a\\\"b\",\"c\\\\d\"]}}}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void render_missingParameter_throws() {
+        QueryTemplate.compile("{\"size\":\"{{size}}\"}").render(Collections.emptyMap());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_withAggregation_throws() {
+        QueryTemplate.compile(src().aggregation(AggregationBuilders.terms("tags").field("tag")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_jsonTemplateWithAggs_throws() {
+        QueryTemplate.compile("{\"size\":0,\"aggs\":{\"tags\":{\"terms\":{\"field\":\"{{field}}\"}}}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_jsonTemplateWithSuggest_throws() {
+        QueryTemplate.compile("{\"suggest\":{\"s\":{\"text\":\"{{text}}\",\"term\":{\"field\":\"name\"}}}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_invalidJson_throws() {
+        QueryTemplate.compile("{\"size\":\"{{size}}\"");
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Sergej Schaefer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.ss3rg3.elsa.jsonmapper;
+
+import assets.FakerModel;
+import com.google.gson.Gson;
+import io.github.ss3rg3.elsa.model.ElsaModel;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class GsonAdapterTest {
+
+    private final GsonAdapter<FakerModel> adapter = new GsonAdapter<>(FakerModel.class, new Gson());
+
+    @Test
+    public void fromJson_bytes_sameAsString() {
+        final FakerModel model = FakerModel.createModelWithRandomData();
+        model.setName("Zoë Łukasz 東京");
+        final String json = this.adapter.toJson(model);
+
+        final FakerModel fromString = this.adapter.fromJson(json);
+        final FakerModel fromBytesReference = this.adapter.fromJson(new BytesArray(json));
+        final FakerModel fromByteArray = this.adapter.fromJson(json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(fromBytesReference.getName(), is("Zoë Łukasz 東京"));
+        assertThat(this.adapter.toJson(fromBytesReference), is(this.adapter.toJson(fromString)));
+        assertThat(this.adapter.toJson(fromByteArray), is(this.adapter.toJson(fromString)));
+    }
+
+    @Test
+    public void fromJson_nullSource_null() {
+        assertThat(this.adapter.fromJson((BytesReference) null), nullValue());
+        assertThat(this.adapter.fromJson((BytesReference) null, FakerModel.class), nullValue());
+    }
+
+    @Test
+    public void customMapperWithOriginalMethodsOnly_defaultsWork() {
+        final JsonMapper<FakerModel> mapper = new JsonMapper<FakerModel>() {
+            @Override
+            public String toJson(final ElsaModel model) {
+                return GsonAdapterTest.this.adapter.toJson(model);
+            }
+
+            @Override
+            public FakerModel fromJson(final String json) {
+                return GsonAdapterTest.this.adapter.fromJson(json);
+            }
+
+            @Override
+            public FakerModel fromJson(final Map<String, Object> map) {
+                return GsonAdapterTest.this.adapter.fromJson(map);
+            }
+        };
+
+        assertThat(mapper.toJson(Collections.singletonMap("age", 3)), is("{\"age\":3}"));
+        assertThat(ProjectionMapper.of(this.adapter) == this.adapter, is(true));
+        try {
+            ProjectionMapper.of(mapper);
+            fail("Expected UnsupportedOperationException");
+        } catch (final UnsupportedOperationException e) {
+            assertThat(e.getMessage().contains("ProjectionMapper"), is(true));
+        }
+    }
+
+}
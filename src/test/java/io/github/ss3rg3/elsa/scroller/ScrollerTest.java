@@ -23,13 +23,19 @@ import io.github.ss3rg3.elsa.dao.DaoConfig;
 import io.github.ss3rg3.elsa.exceptions.ElsaException;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static assets.TestHelpers.TEST_CLUSTER_HOSTS;
@@ -87,4 +93,91 @@ public class ScrollerTest {
         }
         elsa.scroller.clearScroll(scrollManager);
     }
+
+    @Test
+    public void scrollSliced_slicesFromShards_allIdsOnce() throws ElsaException {
+        final SearchRequest request = new SearchRequest()
+                .indices(FakerModel.getIndexName())
+                .source(SearchSourceBuilder.searchSource()
+                        .query(QueryBuilders.matchAllQuery())
+                        .size(7));
+
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final AtomicInteger hits = new AtomicInteger(0);
+        elsa.scroller.scrollSliced(request, 3, TimeValue.timeValueMinutes(1L), Executors.newFixedThreadPool(3), hit -> {
+            ids.add(hit.getId());
+            hits.incrementAndGet();
+        }, RequestOptions.DEFAULT);
+
+        assertThat(ids.size(), is(100));
+        assertThat(hits.get(), is(100));
+
+        ids.clear();
+        final SearchRequest withoutIndices = new SearchRequest()
+                .source(SearchSourceBuilder.searchSource()
+                        .query(QueryBuilders.matchAllQuery())
+                        .size(7));
+        elsa.scroller.scrollSliced(withoutIndices, FakerModel.indexConfig, TimeValue.timeValueMinutes(1L), hit -> ids.add(hit.getId()));
+        assertThat(ids.size(), is(100));
+    }
+
+    @Test
+    public void iterate_prefetching_idsInExpectedOrder() throws ElsaException {
+        final SearchRequest request = new SearchRequest()
+                .indices(FakerModel.getIndexName())
+                .source(SearchSourceBuilder.searchSource()
+                        .query(QueryBuilders.matchAllQuery())
+                        .size(7));
+
+        int expectedId = 0;
+        try (PrefetchingScrollIterator iterator = elsa.scroller.iterate(request, TimeValue.timeValueMinutes(1L), 3,
+                ByteSizeValue.ofKb(10), RequestOptions.DEFAULT)) {
+            while (iterator.hasNext()) {
+                assertThat(Integer.valueOf(iterator.next().getId()), is(expectedId++));
+                assertThat(iterator.getBufferedPages() <= 3, is(true));
+            }
+        }
+        assertThat(expectedId, is(100));
+    }
+
+    @Test
+    public void openSession_idsInExpectedOrder_clearedOnClose() throws ElsaException {
+        final SearchRequest request = new SearchRequest()
+                .indices(FakerModel.getIndexName())
+                .source(SearchSourceBuilder.searchSource()
+                        .query(QueryBuilders.matchAllQuery())
+                        .size(7));
+
+        int expectedId = 0;
+        try (ScrollSession session = elsa.scroller.openSession(request, TimeValue.timeValueMinutes(1L))) {
+            assertThat(elsa.scroller.getOpenScrollCount(), is(1));
+            while (session.hasHits()) {
+                for (final SearchHit hit : session.getCurrent().getHits().getHits()) {
+                    assertThat(Integer.valueOf(hit.getId()), is(expectedId++));
+                }
+                session.next();
+            }
+        }
+        assertThat(expectedId, is(100));
+        assertThat(elsa.scroller.getOpenScrollCount(), is(0));
+        assertThat(elsa.scroller.isReaperScheduled(), is(false));
+    }
+
+    @Test
+    public void openSession_processingThrows_scrollCleared() throws ElsaException {
+        final SearchRequest request = new SearchRequest()
+                .indices(FakerModel.getIndexName())
+                .source(SearchSourceBuilder.searchSource()
+                        .query(QueryBuilders.matchAllQuery())
+                        .size(7));
+
+        try (ScrollSession session = elsa.scroller.openSession(request, TimeValue.timeValueMinutes(1L))) {
+            session.next();
+            throw new IllegalStateException("processing failed");
+        } catch (final IllegalStateException e) {
+            assertThat(e.getMessage(), is("processing failed"));
+        }
+        assertThat(elsa.scroller.getOpenScrollCount(), is(0));
+    }
+
 }